@@ -3,6 +3,8 @@ package metaheuristics.ga;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import problems.Evaluator;
 import solutions.Solution;
@@ -35,9 +37,15 @@ public abstract class AbstractGA<G extends Number, F> {
     public static boolean verbose = true;
 
     /**
-     * a random number generator
+     * the random number generator shared by every GA not given one of its own
      */
-    public static final Random rng = new Random(0);
+    public static final Random sharedRng = new Random(0);
+
+    /**
+     * the random number generator of this GA, {@link #sharedRng} unless set
+     * by {@link #setRandom(Random)}
+     */
+    protected Random rng = sharedRng;
 
     /**
      * the objective function being optimized
@@ -87,6 +95,48 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     protected Chromosome<F> bestChromosome;
 
+    /**
+     * the current population
+     */
+    protected Population population;
+
+    /**
+     * the pool evaluating the fitness of the chromosomes, or null to evaluate
+     * them in the calling thread
+     */
+    protected ForkJoinPool pool;
+
+    /**
+     * the evaluator contexts of the pool, one per chunk of chromosomes
+     */
+    protected List<Evaluator<F>> contexts;
+
+    /**
+     * whether {@link #evolve()} is running a generation, keeping track of the
+     * chromosomes and populations it creates, to recycle those left out of
+     * the new population
+     */
+    private boolean recycling;
+
+    /**
+     * number of generations run by {@link #evolve()}
+     */
+    private int generation;
+
+    /**
+     * chromosomes and populations recycled, to be reused by
+     * {@link #newChromosome()}, {@link #copyChromosome(Chromosome)} and
+     * {@link #newPopulation()}
+     */
+    private final List<Chromosome<F>> spareChromosomes = new ArrayList<>();
+    private final List<Population> sparePopulations = new ArrayList<>();
+
+    /**
+     * chromosomes and populations created in the current generation
+     */
+    private final List<Chromosome<F>> issuedChromosomes = new ArrayList<>();
+    private final List<Population> issuedPopulations = new ArrayList<>();
+
     /**
      * Creates a new solution which is empty, i.e., does not contain any
      * candidate solution element.
@@ -97,6 +147,17 @@ public abstract class AbstractGA<G extends Number, F> {
 
     public abstract Boolean mutationCriteria();
 
+    /**
+     * Gives the probability of mutating each locus under the
+     * {@link #DYNAMIC_MUTATION}, which must agree with
+     * {@link #mutationCriteria()} and may change as genes are mutated. GAs
+     * without a dynamic mutation should reject the {@link #DYNAMIC_MUTATION}
+     * when constructed.
+     *
+     * @return the probability of mutating a locus.
+     */
+    protected abstract double mutationProbability();
+
     /**
      * A mapping from the genotype (domain) to the fenotype (image). In other
      * words, it takes a chromosome as input and generates a corresponding
@@ -148,6 +209,77 @@ public abstract class AbstractGA<G extends Number, F> {
 
     protected abstract void endGenerationAction();
 
+    /**
+     * Gives this GA a random number generator of its own, so that it draws
+     * independently of (and may run concurrently with) other GAs.
+     *
+     * @param rng the random number generator.
+     */
+    public void setRandom(Random rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * Sets the pool on which the fitness of the chromosomes is evaluated.
+     * Each batch of chromosomes is split into one chunk per worker of the
+     * pool, and each chunk is evaluated through its own context of the
+     * objective function. Everything else, including every use of
+     * {@link #rng}, stays in the calling thread, so that the GA follows
+     * exactly the same course whatever the pool.
+     *
+     * @param pool the pool, or null to evaluate in the calling thread.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        this.contexts = null;
+
+        if (pool != null) {
+            this.contexts = new ArrayList<>();
+            for (int i = 0; i < pool.getParallelism(); i++) {
+                this.contexts.add(ObjFunction.newContext());
+            }
+        }
+    }
+
+    /**
+     * Calculates the fitness of several chromosomes (see
+     * {@link Chromosome#calcFitness(List, List, Evaluator)}), on the
+     * {@link #pool} if there is one.
+     *
+     * @param chromosomes the chromosomes to be evaluated.
+     * @param bases the base of each chromosome, or null to evaluate them from
+     * scratch.
+     */
+    protected void calcFitness(List<Chromosome<F>> chromosomes, List<Chromosome<F>> bases) {
+        int chunks = (pool == null) ? 1 : Math.min(contexts.size(), chromosomes.size());
+
+        if (chunks <= 1) {
+            calcFitness(chromosomes, bases, ObjFunction);
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int k = 0; k < chunks; k++) {
+            int from = k * chromosomes.size() / chunks;
+            int to = (k + 1) * chromosomes.size() / chunks;
+            List<Chromosome<F>> chunk = chromosomes.subList(from, to);
+            List<Chromosome<F>> chunkBases = (bases == null) ? null : bases.subList(from, to);
+            Evaluator<F> context = contexts.get(k);
+            tasks.add(pool.submit(() -> calcFitness(chunk, chunkBases, context)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private static <F> void calcFitness(List<Chromosome<F>> chromosomes, List<Chromosome<F>> bases, Evaluator<F> objEval) {
+        if (bases == null) {
+            Chromosome.calcFitness(chromosomes, objEval);
+        } else {
+            Chromosome.calcFitness(chromosomes, bases, objEval);
+        }
+    }
+
     /**
      * The GA mainframe. It starts by initializing a population of chromosomes.
      * It then enters a generational loop, in which each generation goes the
@@ -164,10 +296,7 @@ public abstract class AbstractGA<G extends Number, F> {
         tempoInicial = System.currentTimeMillis();
 
         /* starts the initial population */
-        Population population = initializePopulation();
-
-        bestChromosome = getBestChromosome(population);
-        bestSol = decode(bestChromosome);
+        initialize();
         verificarAlvos(alvos_, 0, tempoInicial, System.currentTimeMillis());
 
         /*
@@ -176,21 +305,7 @@ public abstract class AbstractGA<G extends Number, F> {
         for (int g = 1; (((System.currentTimeMillis() - tempoInicial) / 1000D) / 60D) < this.tempoExecucao && !alvos_.isEmpty(); g++) {
             geracoesSemMelhora++;
 
-            Population parents = selectParents(population);
-
-            Population offsprings = crossover(parents);
-
-            Population mutants = mutate(offsprings);
-
-            Population newpopulation = selectPopulation(mutants);
-
-            population = newpopulation;
-
-            bestChromosome = getBestChromosome(population);
-
-            if (bestChromosome.getFitnessVal() > bestSol.cost) {
-                bestSol = decode(bestChromosome);
-
+            if (evolve()) {
                 if (verbose) {
                     System.out.println("(Gen. " + g + ", Temp. " + ((System.currentTimeMillis() - tempoInicial) / 1000D) + "s) BestSol = " + bestSol);
                 }
@@ -211,6 +326,219 @@ public abstract class AbstractGA<G extends Number, F> {
         return bestSol;
     }
 
+    /**
+     * Starts the GA: generates the initial population and takes its best
+     * chromosome and solution.
+     */
+    protected void initialize() {
+        population = initializePopulation();
+
+        bestChromosome = getBestChromosome(population);
+        bestSol = decode(bestChromosome);
+    }
+
+    /**
+     * Runs one generation of the GA over the current population: parent
+     * selection, crossover, mutation, population update and best solution
+     * update.
+     *
+     * @return true if the best solution improved.
+     */
+    protected boolean evolve() {
+        Population previous = population;
+        recycling = true;
+
+        try {
+            Population parents = selectParents(population);
+
+            Population offsprings = crossover(parents);
+
+            Population mutants = mutate(offsprings);
+
+            population = selectPopulation(mutants);
+        } finally {
+            recycling = false;
+        }
+
+        recycle(previous);
+
+        bestChromosome = getBestChromosome(population);
+
+        if (bestChromosome.getFitnessVal() > bestSol.cost) {
+            bestSol = decode(bestChromosome);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates an empty population. Populations are not recycled unless
+     * created by {@link #newPopulation()}.
+     *
+     * @return An empty population.
+     */
+    protected Population createPopulation() {
+        return new Population();
+    }
+
+    /**
+     * Gives an empty population, reusing one left over by a previous
+     * generation when there is one.
+     *
+     * @return An empty population.
+     */
+    protected Population newPopulation() {
+        Population p = sparePopulations.isEmpty() ? createPopulation() : sparePopulations.remove(sparePopulations.size() - 1);
+        if (recycling) {
+            issuedPopulations.add(p);
+        }
+        return p;
+    }
+
+    /**
+     * Gives an empty chromosome, reusing the storage of one left out of the
+     * population by a previous generation when there is one.
+     *
+     * @return An empty chromosome, to be filled by appending genes.
+     */
+    protected Chromosome<F> newChromosome() {
+        Chromosome<F> c;
+        if (spareChromosomes.isEmpty()) {
+            c = createEmpytChromossome();
+        } else {
+            c = spareChromosomes.remove(spareChromosomes.size() - 1);
+            c.reset();
+        }
+        if (recycling) {
+            issuedChromosomes.add(c);
+        }
+        return c;
+    }
+
+    /**
+     * Gives a copy of a chromosome, reusing the storage of one left out of
+     * the population by a previous generation when there is one.
+     *
+     * @param chromosome The chromosome copied.
+     * @return An independent copy of the chromosome.
+     */
+    protected Chromosome<F> copyChromosome(Chromosome<F> chromosome) {
+        Chromosome<F> c;
+        if (spareChromosomes.isEmpty()) {
+            c = chromosome.clone();
+        } else {
+            c = spareChromosomes.remove(spareChromosomes.size() - 1);
+            c.copyFrom(chromosome);
+        }
+        if (recycling) {
+            issuedChromosomes.add(c);
+        }
+        return c;
+    }
+
+    /**
+     * Recycles the chromosomes and populations of a generation which did not
+     * make it into the new population: the previous population, the
+     * chromosomes left out of the new one (parents, discarded offsprings,
+     * copies made for the mutation) and every other population the generation
+     * created. In the steady state, a generation thus reuses the storage of
+     * the previous one instead of allocating new chromosomes.
+     *
+     * @param previous The population the generation started from.
+     */
+    private void recycle(Population previous) {
+        generation++;
+
+        for (Chromosome<F> c : population) {
+            c.generation = generation;
+        }
+        for (Chromosome<F> c : previous) {
+            release(c);
+        }
+        for (Chromosome<F> c : issuedChromosomes) {
+            release(c);
+        }
+        issuedChromosomes.clear();
+
+        if (previous != population) {
+            previous.clear();
+            sparePopulations.add(previous);
+        }
+        for (Population p : issuedPopulations) {
+            if (p != population) {
+                p.clear();
+                sparePopulations.add(p);
+            }
+        }
+        issuedPopulations.clear();
+    }
+
+    private void release(Chromosome<F> c) {
+        if (c.generation != generation) {
+            c.generation = generation;
+            spareChromosomes.add(c);
+        }
+    }
+
+    /**
+     * Takes copies of the best chromosomes of the current population, to
+     * migrate to another population.
+     *
+     * @param count number of chromosomes.
+     * @return the copies, from the best chromosome on.
+     */
+    protected List<Chromosome<F>> emigrants(int count) {
+        List<Chromosome<F>> ranking = new ArrayList<>(population);
+        ranking.sort((c1, c2) -> Double.compare(c2.getFitnessVal(), c1.getFitnessVal()));
+
+        List<Chromosome<F>> emigrants = new ArrayList<>();
+        for (int i = 0; i < count && i < ranking.size(); i++) {
+            emigrants.add(ranking.get(i).clone());
+        }
+
+        return emigrants;
+    }
+
+    /**
+     * Receives chromosomes migrating from another population. Each one takes
+     * the place of the worst chromosome of the current population, if it is
+     * better than it and {@link #acceptsImmigrant(Chromosome)}.
+     *
+     * @param immigrants the chromosomes, already evaluated.
+     */
+    protected void immigrate(List<Chromosome<F>> immigrants) {
+        for (Chromosome<F> c : immigrants) {
+            int worse = 0;
+            for (int i = 1; i < population.size(); i++) {
+                if (population.get(i).getFitnessVal() < population.get(worse).getFitnessVal()) {
+                    worse = i;
+                }
+            }
+
+            if (population.get(worse).getFitnessVal() < c.getFitnessVal() && acceptsImmigrant(c)) {
+                population.set(worse, c);
+            }
+        }
+
+        bestChromosome = getBestChromosome(population);
+
+        if (bestChromosome.getFitnessVal() > bestSol.cost) {
+            bestSol = decode(bestChromosome);
+        }
+    }
+
+    /**
+     * Tells whether a chromosome migrating from another population may join
+     * the current one. Every chromosome may, unless overridden.
+     *
+     * @param immigrant the chromosome.
+     * @return true if the chromosome may join the population.
+     */
+    protected boolean acceptsImmigrant(Chromosome<F> immigrant) {
+        return true;
+    }
+
     /**
      * Randomly generates an initial population to start the GA.
      *
@@ -218,14 +546,15 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     protected Population initializePopulation() {
 
-        Population population = new Population();
+        Population population = newPopulation();
 
         while (population.size() < popSize) {
             Chromosome<F> c = generateRandomChromosome();
-            c.calcFitness(ObjFunction);
             population.add(c);
         }
 
+        calcFitness(population, null);
+
         return population;
 
     }
@@ -284,7 +613,7 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     protected Population selectParents(Population population) {
 
-        Population parents = new Population();
+        Population parents = newPopulation();
 
         while (parents.size() < popSize) {
             int index1 = rng.nextInt(popSize);
@@ -322,7 +651,8 @@ public abstract class AbstractGA<G extends Number, F> {
      * @return The resulting offsprings.
      */
     protected Population defaultCrossover(Population parents) {
-        Population offsprings = new Population();
+        Population offsprings = newPopulation();
+        Population bases = newPopulation();
 
         for (int i = 0; i < popSize; i = i + 2) {
 
@@ -332,8 +662,8 @@ public abstract class AbstractGA<G extends Number, F> {
             int crosspoint1 = rng.nextInt(chromosomeSize + 1);
             int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
 
-            Chromosome<F> offspring1 = createEmpytChromossome();
-            Chromosome<F> offspring2 = createEmpytChromossome();
+            Chromosome<F> offspring1 = newChromosome();
+            Chromosome<F> offspring2 = newChromosome();
 
             for (int j = 0; j < chromosomeSize; j++) {
                 if (j >= crosspoint1 && j < crosspoint2) {
@@ -345,14 +675,15 @@ public abstract class AbstractGA<G extends Number, F> {
                 }
             }
 
-            offspring1.calcFitness(ObjFunction);
-            offspring2.calcFitness(ObjFunction);
-
             offsprings.add(offspring1);
             offsprings.add(offspring2);
+            bases.add(parent1);
+            bases.add(parent2);
 
         }
 
+        calcFitness(offsprings, bases);
+
         return offsprings;
     }
 
@@ -367,32 +698,65 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     protected Population mutate(Population offsprings) {
 
+        Population mutants = newPopulation();
+        Population originals = newPopulation();
+
         for (Chromosome<F> c : offsprings) {
-            boolean teveMutacao = false;
-
-            for (int locus = 0; locus < chromosomeSize; locus++) {
-                if (this.MUTATION_TYPE == AbstractGA.DEFAULT_MUTATION) {
-                    if (rng.nextDouble() < mutationRate) {
-                        mutateGene(c, locus);
-                        teveMutacao = true;
-                    }
-                } else if (this.MUTATION_TYPE == AbstractGA.DYNAMIC_MUTATION) {
-                    if (this.mutationCriteria()) {
-                        mutateGene(c, locus);
-                        teveMutacao = true;
-                    }
-                }
+            Chromosome<F> original = null;
 
+            for (int locus = nextMutation(-1); locus < chromosomeSize; locus = nextMutation(locus)) {
+                if (original == null) {
+                    original = copyChromosome(c);
+                }
+                mutateGene(c, locus);
             }
 
-            if (teveMutacao) {
-                c.calcFitness(ObjFunction);
+            if (original != null) {
+                mutants.add(c);
+                originals.add(original);
             }
         }
 
+        calcFitness(mutants, originals);
+
         return offsprings;
     }
 
+    /**
+     * Gives the next locus of a chromosome to be mutated. Rather than drawing
+     * a random number for every locus, it draws the number of loci skipped
+     * before the next mutation, which follows a geometric distribution, so
+     * that the loci mutated are distributed just as if each one mutated
+     * independently with the probability of the {@link #MUTATION_TYPE}. The
+     * probability is taken again after every mutation, as the dynamic one
+     * changes with the genes.
+     *
+     * @param locus The last locus mutated, or -1 to start from the first
+     * locus.
+     * @return The next locus to be mutated, or {@link #chromosomeSize} if
+     * there is none.
+     */
+    protected int nextMutation(int locus) {
+        double p;
+        if (this.MUTATION_TYPE == AbstractGA.DEFAULT_MUTATION) {
+            p = mutationRate;
+        } else if (this.MUTATION_TYPE == AbstractGA.DYNAMIC_MUTATION) {
+            p = mutationProbability();
+        } else {
+            return chromosomeSize;
+        }
+
+        if (p <= 0) {
+            return chromosomeSize;
+        }
+        if (p >= 1) {
+            return Math.min(locus + 1, chromosomeSize);
+        }
+
+        double gap = Math.floor(Math.log(1 - rng.nextDouble()) / Math.log1p(-p));
+        return (int) Math.min(locus + 1 + gap, chromosomeSize);
+    }
+
     /**
      * Updates the population that will be considered for the next GA
      * generation. The method used for updating the population is the elitist,
@@ -0,0 +1,413 @@
+package metaheuristics.ga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import solutions.Solution;
+
+/**
+ * A chromosome of binary genes packed 64 to a word, with gene i kept in bit i
+ * % 64 of word i / 64. As a list, its genes read as the Integers 0 and 1.
+ * Besides the gene-by-gene access, it offers word-level operations (Hamming
+ * distance, differing positions, exchange of a range of genes), which process
+ * 64 genes at a time.
+ *
+ * The bits past the last gene are always zero, so that whole words can be
+ * compared and counted.
+ *
+ * The chromosome also keeps a 64-bit Zobrist hash of its genes, the XOR of a
+ * fixed pseudo-random key per position of a gene equal to one. Every change of
+ * a gene updates the hash in constant time, so chromosomes can be told apart
+ * (and looked up in hash tables) without going through their genes, which are
+ * only compared when the hashes are equal.
+ */
+public class BitChromosome extends Chromosome<Integer> {
+
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * The genes, packed.
+     */
+    protected long[] words;
+
+    /**
+     * Number of genes.
+     */
+    protected int size;
+
+    /**
+     * Zobrist hash of the genes.
+     */
+    protected long hash;
+
+    /**
+     * Creates a chromosome with no genes, to be filled by appending.
+     */
+    public BitChromosome() {
+        this.words = EMPTY;
+        this.size = 0;
+    }
+
+    /**
+     * Creates a chromosome with all of its genes equal to zero.
+     *
+     * @param size number of genes.
+     */
+    public BitChromosome(int size) {
+        this.words = new long[(size + 63) >>> 6];
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Integer get(int locus) {
+        return getBit(locus) ? 1 : 0;
+    }
+
+    @Override
+    public Integer set(int locus, Integer gene) {
+        boolean old = getBit(locus);
+        setBit(locus, gene != 0);
+        return old ? 1 : 0;
+    }
+
+    /**
+     * Appends a gene. Genes can only be added at the end of the chromosome.
+     */
+    @Override
+    public void add(int locus, Integer gene) {
+        if (locus != size) {
+            throw new UnsupportedOperationException("genes can only be appended");
+        }
+        if ((size >>> 6) == words.length) {
+            words = Arrays.copyOf(words, Math.max(1, 2 * words.length));
+        }
+        size++;
+        modCount++;
+        setBit(locus, gene != 0);
+    }
+
+    /**
+     * Tells whether a gene is one.
+     *
+     * @param locus position of the gene.
+     * @return true if the gene is one.
+     */
+    public boolean getBit(int locus) {
+        checkLocus(locus);
+        return (words[locus >>> 6] & (1L << locus)) != 0;
+    }
+
+    /**
+     * Sets a gene.
+     *
+     * @param locus position of the gene.
+     * @param value true to set the gene to one, false to zero.
+     */
+    public void setBit(int locus, boolean value) {
+        checkLocus(locus);
+        if (((words[locus >>> 6] & (1L << locus)) != 0) != value) {
+            words[locus >>> 6] ^= 1L << locus;
+            hash ^= zobristKey(locus);
+        }
+    }
+
+    /**
+     * Flips a gene.
+     *
+     * @param locus position of the gene.
+     */
+    public void flip(int locus) {
+        checkLocus(locus);
+        words[locus >>> 6] ^= 1L << locus;
+        hash ^= zobristKey(locus);
+    }
+
+    /**
+     * Gives the Zobrist key of a position, which is the SplitMix64 mix of
+     * the position, so that no table of keys has to be kept.
+     */
+    private static long zobristKey(int locus) {
+        long z = (locus + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gives the Zobrist hash of the genes. Equal chromosomes have equal
+     * hashes.
+     *
+     * @return the hash.
+     */
+    public long longHash() {
+        return hash;
+    }
+
+    private void checkLocus(int locus) {
+        if (locus < 0 || locus >= size) {
+            throw new IndexOutOfBoundsException("Locus: " + locus + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Gives the position of the first gene equal to one at or after a locus.
+     *
+     * @param from the first position considered.
+     * @return the position found, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == wordCount()) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * {@inheritDoc} The solution holds the positions of the genes equal to
+     * one.
+     */
+    @Override
+    public Solution<Integer> toSolution() {
+        Solution<Integer> solution = new Solution<Integer>();
+        solution.cost = 0.0;
+
+        for (int locus = nextSetBit(0); locus >= 0; locus = nextSetBit(locus + 1)) {
+            solution.add(locus);
+        }
+
+        return solution;
+    }
+
+    @Override
+    public long[] toBits() {
+        return words;
+    }
+
+    /**
+     * Gives the number of genes equal to one.
+     *
+     * @return the number of genes equal to one.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int w = 0; w < wordCount(); w++) {
+            count += Long.bitCount(words[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Gives the Hamming distance to another chromosome of the same size.
+     *
+     * @param other the other chromosome.
+     * @return the number of positions where the genes differ.
+     */
+    public int distance(BitChromosome other) {
+        int count = 0;
+        for (int w = 0; w < wordCount(); w++) {
+            count += Long.bitCount(words[w] ^ other.words[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Gives the first position, at or after a locus, where the genes of this
+     * and of another chromosome of the same size differ.
+     *
+     * @param other the other chromosome.
+     * @param from the first position considered.
+     * @return the position found, or {@link #size()} if there is none.
+     */
+    public int nextDifference(BitChromosome other, int from) {
+        if (from >= size) {
+            return size;
+        }
+        int w = from >>> 6;
+        long word = (words[w] ^ other.words[w]) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == wordCount()) {
+                return size;
+            }
+            word = words[w] ^ other.words[w];
+        }
+    }
+
+    /**
+     * Gives the last position, at or before a locus, where the genes of this
+     * and of another chromosome of the same size differ.
+     *
+     * @param other the other chromosome.
+     * @param from the last position considered.
+     * @return the position found, or -1 if there is none.
+     */
+    public int previousDifference(BitChromosome other, int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = (words[w] ^ other.words[w]) & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (--w < 0) {
+                return -1;
+            }
+            word = words[w] ^ other.words[w];
+        }
+    }
+
+    /**
+     * Lists the positions where the genes of this and of another chromosome of
+     * the same size differ, or the positions where they agree.
+     *
+     * @param other the other chromosome.
+     * @param differ true to list the differing positions, false to list the
+     * agreeing ones.
+     * @return the positions, in increasing order.
+     */
+    public ArrayList<Integer> differences(BitChromosome other, boolean differ) {
+        ArrayList<Integer> pos = new ArrayList<Integer>();
+
+        for (int w = 0; w < wordCount(); w++) {
+            long word = words[w] ^ other.words[w];
+            if (!differ) {
+                word = ~word & lastWordMask(w);
+            }
+            while (word != 0) {
+                pos.add((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+
+        return pos;
+    }
+
+    /**
+     * Exchanges the genes of the positions from ... to - 1 between this and
+     * another chromosome of the same size, as in a two-point crossover.
+     *
+     * @param other the other chromosome.
+     * @param from the first position exchanged.
+     * @param to the position past the last one exchanged.
+     */
+    public void swapRange(BitChromosome other, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        for (int w = first; w <= last; w++) {
+            long mask = -1L;
+            if (w == first) {
+                mask &= -1L << from;
+            }
+            if (w == last) {
+                mask &= -1L >>> (63 - ((to - 1) & 63));
+            }
+            long swap = (words[w] ^ other.words[w]) & mask;
+            words[w] ^= swap;
+            other.words[w] ^= swap;
+
+            long keys = 0;
+            for (; swap != 0; swap &= swap - 1) {
+                keys ^= zobristKey((w << 6) + Long.numberOfTrailingZeros(swap));
+            }
+            hash ^= keys;
+            other.hash ^= keys;
+        }
+        modCount++;
+        other.modCount++;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(words, 0, wordCount(), 0L);
+        size = 0;
+        hash = 0;
+        fitnessVal = 0D;
+        modCount++;
+    }
+
+    @Override
+    public void copyFrom(Chromosome<Integer> other) {
+        if (!(other instanceof BitChromosome)) {
+            super.copyFrom(other);
+            return;
+        }
+
+        BitChromosome o = (BitChromosome) other;
+        int count = o.wordCount();
+        if (words.length < count) {
+            words = new long[count];
+        }
+        System.arraycopy(o.words, 0, words, 0, count);
+        Arrays.fill(words, count, words.length, 0L);
+        size = o.size;
+        hash = o.hash;
+        fitnessVal = o.fitnessVal;
+        modCount++;
+    }
+
+    /**
+     * Gives the number of words holding genes.
+     */
+    private int wordCount() {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Gives the mask of the bits of a word that hold genes.
+     */
+    private long lastWordMask(int w) {
+        int bits = size - (w << 6);
+        return (bits >= 64) ? -1L : (1L << bits) - 1;
+    }
+
+    @Override
+    public BitChromosome clone() {
+        BitChromosome copy = (BitChromosome) super.clone();
+        copy.words = Arrays.copyOf(words, wordCount());
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof BitChromosome) {
+            BitChromosome other = (BitChromosome) o;
+            if (size != other.size || hash != other.hash) {
+                return false;
+            }
+            for (int w = 0; w < wordCount(); w++) {
+                if (words[w] != other.words[w]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+}
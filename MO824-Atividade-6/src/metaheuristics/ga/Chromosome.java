@@ -5,27 +5,186 @@
  */
 package metaheuristics.ga;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import problems.BinaryEvaluator;
 import problems.Evaluator;
+import solutions.Solution;
 
 /**
+ * A chromosome, seen as the list of its genes. Subclasses choose how the genes
+ * are stored, providing {@link #get(int)}, {@link #set(int, Object)},
+ * {@link #size()} and appending through {@link #add(int, Object)}.
  *
  * @author Cristina Bazzano
  * @author Jônatas Trabuco Belotti [jonatas.t.belotti@hotmail.com]
  * @author Matheus Diógenes Andrade
  */
-@SuppressWarnings("serial")
-public abstract class Chromosome<G> extends ArrayList<G> {
+public abstract class Chromosome<G> extends AbstractList<G> implements Cloneable {
 
     protected double fitnessVal = 0D;
 
+    /**
+     * the last generation in which the GA accounted for the chromosome, when
+     * recycling the chromosomes left out of its population
+     */
+    int generation = -1;
+
     public Chromosome() {
     }
 
-    public Double getFitnessVal() {
+    public double getFitnessVal() {
         return fitnessVal;
     }
 
-    public abstract void calcFitness(Evaluator<G> objEval);
+    /**
+     * Copies the chromosome, genes and fitness.
+     *
+     * @return an independent copy of the chromosome.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Chromosome<G> clone() {
+        try {
+            return (Chromosome<G>) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Removes every gene of the chromosome, keeping its storage to be filled
+     * again by appending, as a chromosome just created.
+     */
+    public void reset() {
+        clear();
+        fitnessVal = 0D;
+    }
+
+    /**
+     * Turns the chromosome into a copy of another one, genes and fitness,
+     * reusing its storage.
+     *
+     * @param other the chromosome copied.
+     */
+    public void copyFrom(Chromosome<G> other) {
+        reset();
+        addAll(other);
+        fitnessVal = other.fitnessVal;
+    }
+
+    /**
+     * Decodes the chromosome into the solution it represents, to be evaluated.
+     *
+     * @return the solution represented by the chromosome.
+     */
+    public abstract Solution<G> toSolution();
+
+    /**
+     * Gives the genes packed as bits, as read by a {@link BinaryEvaluator},
+     * for chromosomes of binary genes. The array is not to be modified.
+     *
+     * @return the packed genes, or null if the genes are not binary.
+     */
+    public long[] toBits() {
+        return null;
+    }
+
+    /**
+     * Calculates the fitness of the chromosome. Binary chromosomes are scored
+     * directly on their bits when the objective function is a
+     * {@link BinaryEvaluator}, without building a solution.
+     *
+     * @param objEval the objective function.
+     */
+    public void calcFitness(Evaluator<G> objEval) {
+        long[] bits = toBits();
+        if (bits != null && objEval instanceof BinaryEvaluator) {
+            this.fitnessVal = ((BinaryEvaluator) objEval).evaluateBits(bits);
+            return;
+        }
+
+        Solution<G> solution = toSolution();
+        objEval.evaluate(solution);
+        this.fitnessVal = solution.cost;
+    }
+
+    /**
+     * Calculates the fitness of several chromosomes at once, through
+     * {@link BinaryEvaluator#evaluateBitsBatch(long[][], int, double[])} for
+     * binary chromosomes, or else {@link Evaluator#evaluateBatch(List)}.
+     *
+     * @param chromosomes the chromosomes to be evaluated.
+     * @param objEval the objective function.
+     */
+    public static <G> void calcFitness(List<? extends Chromosome<G>> chromosomes, Evaluator<G> objEval) {
+        if (objEval instanceof BinaryEvaluator) {
+            long[][] bits = new long[chromosomes.size()][];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = chromosomes.get(i).toBits();
+            }
+            if (!Arrays.asList(bits).contains(null)) {
+                double[] values = new double[bits.length];
+                ((BinaryEvaluator) objEval).evaluateBitsBatch(bits, bits.length, values);
+                for (int i = 0; i < bits.length; i++) {
+                    chromosomes.get(i).fitnessVal = values[i];
+                }
+                return;
+            }
+        }
+
+        List<Solution<G>> solutions = new ArrayList<>(chromosomes.size());
+        for (Chromosome<G> c : chromosomes) {
+            solutions.add(c.toSolution());
+        }
+
+        objEval.evaluateBatch(solutions);
+
+        for (int i = 0; i < chromosomes.size(); i++) {
+            chromosomes.get(i).fitnessVal = solutions.get(i).cost;
+        }
+    }
+
+    /**
+     * Calculates the fitness of several chromosomes, each obtained from a
+     * base chromosome of known fitness (e.g., an offspring from its parent,
+     * or a mutant from its original). When the objective function is a
+     * {@link BinaryEvaluator}, the fitness of a binary chromosome is derived
+     * from the fitness of its base and the genes in which they differ, as long
+     * as {@link BinaryEvaluator#evaluateBitsFrom(long[], long[], double)}
+     * finds it cheaper. The remaining chromosomes are evaluated in a batch.
+     *
+     * @param chromosomes the chromosomes to be evaluated.
+     * @param bases the base of each chromosome, whose fitness is up to date.
+     * @param objEval the objective function.
+     */
+    public static <G> void calcFitness(List<? extends Chromosome<G>> chromosomes, List<? extends Chromosome<G>> bases, Evaluator<G> objEval) {
+        if (!(objEval instanceof BinaryEvaluator)) {
+            calcFitness(chromosomes, objEval);
+            return;
+        }
+
+        List<Chromosome<G>> remaining = new ArrayList<>();
+        for (int i = 0; i < chromosomes.size(); i++) {
+            Chromosome<G> c = chromosomes.get(i);
+            Chromosome<G> base = bases.get(i);
+            long[] bits = c.toBits();
+            long[] baseBits = base.toBits();
+
+            Double value = null;
+            if (bits != null && baseBits != null) {
+                value = ((BinaryEvaluator) objEval).evaluateBitsFrom(bits, baseBits, base.fitnessVal);
+            }
+            if (value != null) {
+                c.fitnessVal = value;
+            } else {
+                remaining.add(c);
+            }
+        }
+
+        calcFitness(remaining, objEval);
+    }
 
 }
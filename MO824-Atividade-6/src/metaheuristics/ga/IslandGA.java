@@ -0,0 +1,268 @@
+package metaheuristics.ga;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import solutions.Solution;
+
+/**
+ * Island model of GAs. Several GAs over the same problem (the islands) evolve
+ * their own populations in parallel, each one on its own thread. Every
+ * {@link #migrationInterval} generations the islands stop, and copies of the
+ * best chromosomes of each island migrate to another island (the next one in
+ * a ring, or a random one), where they take the place of the worst
+ * chromosomes.
+ *
+ * The islands publish their best chromosomes to a global best without
+ * locking, and the search stops when the global best reaches every target
+ * ({@link #alvos}) or when the time limit ({@link #tempoExecucao}) is over.
+ *
+ * @param <G> Generic type of the chromosome element (genotype).
+ * @param <F> Generic type of the candidate to enter the solution (fenotype).
+ */
+public class IslandGA<G extends Number, F> {
+
+    public final static int RING_TOPOLOGY = 1;
+    public final static int RANDOM_TOPOLOGY = 2;
+
+    /**
+     * the islands, each one with its own random number generator
+     */
+    protected final List<? extends AbstractGA<G, F>> islands;
+
+    /**
+     * tempo para execução, em minutos.
+     */
+    protected Integer tempoExecucao;
+
+    protected List<Integer> alvos;
+
+    /**
+     * the destination of the migrants, {@link #RING_TOPOLOGY} or
+     * {@link #RANDOM_TOPOLOGY}
+     */
+    protected int topology;
+
+    /**
+     * number of generations between two migrations
+     */
+    protected int migrationInterval;
+
+    /**
+     * number of chromosomes migrating from each island
+     */
+    protected int migrants;
+
+    /**
+     * a random number generator, for the random topology
+     */
+    protected Random rng;
+
+    /**
+     * the best chromosome found by any island
+     */
+    protected final AtomicReference<Chromosome<F>> globalBest = new AtomicReference<>();
+
+    /**
+     * the targets, in increasing order, and the first one not yet reached
+     */
+    private List<Integer> alvos_;
+    private final AtomicInteger proximoAlvo = new AtomicInteger();
+
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    private long tempoInicial;
+
+    /**
+     * The constructor for the IslandGA class. The random number generators of
+     * the islands are seeded from the given seed.
+     *
+     * @param islands The GAs evolving the islands, all over the same problem.
+     * @param tempoExecucao Time limit, in minutes.
+     * @param alvos The target fitness values.
+     * @param topology {@link #RING_TOPOLOGY} or {@link #RANDOM_TOPOLOGY}.
+     * @param migrationInterval Number of generations between two migrations.
+     * @param migrants Number of chromosomes migrating from each island.
+     * @param seed The seed of the random number generators.
+     */
+    public IslandGA(List<? extends AbstractGA<G, F>> islands, Integer tempoExecucao, List<Integer> alvos, int topology, int migrationInterval, int migrants, long seed) {
+        this.islands = islands;
+        this.tempoExecucao = tempoExecucao;
+        this.alvos = alvos;
+        this.topology = topology;
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+
+        Random seeds = new Random(seed);
+        for (AbstractGA<G, F> island : islands) {
+            island.setRandom(new Random(seeds.nextLong()));
+        }
+        this.rng = new Random(seeds.nextLong());
+    }
+
+    /**
+     * Evolves the islands, one thread each, until a stop rule is met.
+     * Migrations happen while every island is stopped, so an island is only
+     * ever used by one thread at a time.
+     *
+     * @return The best solution found by any island.
+     */
+    public Solution<F> solve() {
+        tempoInicial = System.currentTimeMillis();
+        alvos_ = new ArrayList<>(this.alvos);
+        Collections.sort(alvos_);
+        proximoAlvo.set(0);
+        stop.set(alvos_.isEmpty());
+        globalBest.set(null);
+
+        ForkJoinPool pool = new ForkJoinPool(islands.size());
+        try {
+            /* starts the initial populations */
+            runEpoch(pool, 0);
+
+            for (int epoch = 1; !stopped(); epoch++) {
+                migrate();
+                runEpoch(pool, epoch);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Caso não tenha chegado em algum alvo
+        for (int i = proximoAlvo.get(); i < alvos_.size(); i++) {
+            System.out.println("Alvo: [" + alvos_.get(i) + "]");
+        }
+
+        return islands.get(0).decode(globalBest.get());
+    }
+
+    /**
+     * Runs every island on the pool, for {@link #migrationInterval}
+     * generations (or just its initialization, for the first epoch), and waits
+     * for all of them.
+     */
+    private void runEpoch(ForkJoinPool pool, int epoch) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(islands.size());
+        for (int i = 0; i < islands.size(); i++) {
+            int island = i;
+            tasks.add(pool.submit(() -> runIsland(island, epoch)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private void runIsland(int i, int epoch) {
+        AbstractGA<G, F> island = islands.get(i);
+
+        if (epoch == 0) {
+            island.initialize();
+            offer(i, 0, island.bestChromosome);
+            return;
+        }
+
+        for (int k = 0; k < migrationInterval && !stopped(); k++) {
+            int g = (epoch - 1) * migrationInterval + k + 1;
+
+            island.evolve();
+            offer(i, g, island.bestChromosome);
+
+            island.endGenerationAction();
+        }
+    }
+
+    /**
+     * Tells whether the search should stop, i.e., whether every target was
+     * reached or the time limit is over.
+     */
+    private boolean stopped() {
+        if (!stop.get() && (((System.currentTimeMillis() - tempoInicial) / 1000D) / 60D) >= this.tempoExecucao) {
+            stop.set(true);
+        }
+        return stop.get();
+    }
+
+    /**
+     * Publishes the best chromosome of an island, replacing the global best
+     * by a copy of it if it is better.
+     */
+    private void offer(int i, int g, Chromosome<F> candidate) {
+        Chromosome<F> best = globalBest.get();
+        if (best != null && candidate.getFitnessVal() <= best.getFitnessVal()) {
+            return;
+        }
+
+        Chromosome<F> copy = candidate.clone();
+        while (best == null || copy.getFitnessVal() > best.getFitnessVal()) {
+            if (globalBest.compareAndSet(best, copy)) {
+                improved(i, g, copy);
+                return;
+            }
+            best = globalBest.get();
+        }
+    }
+
+    /**
+     * Reports a new global best and the targets it reaches, and stops the
+     * search once every target is reached.
+     */
+    private void improved(int i, int g, Chromosome<F> best) {
+        AbstractGA<G, F> island = islands.get(i);
+        Solution<F> bestSol = null;
+
+        if (AbstractGA.verbose) {
+            bestSol = island.decode(best);
+            System.out.println("(Ilha " + i + ", Gen. " + g + ", Temp. " + ((System.currentTimeMillis() - tempoInicial) / 1000D) + "s) BestSol = " + bestSol);
+        }
+
+        for (int a = proximoAlvo.get(); a < alvos_.size() && best.getFitnessVal() >= alvos_.get(a); a = proximoAlvo.get()) {
+            if (proximoAlvo.compareAndSet(a, a + 1)) {
+                if (bestSol == null) {
+                    bestSol = island.decode(best);
+                }
+                System.out.println("Alvo: [" + alvos_.get(a) + "] (Ilha " + i + ", Gen. " + g + ", Temp. " + ((System.currentTimeMillis() - tempoInicial) / 1000D) + "s) BestSol = " + bestSol);
+            }
+        }
+
+        if (proximoAlvo.get() == alvos_.size()) {
+            stop.set(true);
+        }
+    }
+
+    /**
+     * Sends copies of the best {@link #migrants} chromosomes of each island to
+     * another island, according to the {@link #topology}. The emigrants of
+     * every island are chosen before any island receives immigrants.
+     */
+    protected void migrate() {
+        int k = islands.size();
+        if (k < 2 || migrants <= 0) {
+            return;
+        }
+
+        List<List<Chromosome<F>>> emigrants = new ArrayList<>(k);
+        for (AbstractGA<G, F> island : islands) {
+            emigrants.add(island.emigrants(migrants));
+        }
+
+        for (int i = 0; i < k; i++) {
+            int destination;
+            if (topology == RANDOM_TOPOLOGY) {
+                destination = rng.nextInt(k - 1);
+                if (destination >= i) {
+                    destination++;
+                }
+            } else {
+                destination = (i + 1) % k;
+            }
+            islands.get(destination).immigrate(emigrants.get(i));
+        }
+    }
+
+}
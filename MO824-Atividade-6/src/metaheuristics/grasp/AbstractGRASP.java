@@ -195,8 +195,7 @@ public abstract class AbstractGRASP<E> {
             int rndIndex = rng.nextInt(RCL.size());
             E inCand = RCL.get(rndIndex);
             CL.remove(inCand);
-            incumbentSol.add(inCand);
-            ObjFunction.evaluate(incumbentSol);
+            ObjFunction.applyInsertion(inCand, incumbentSol);
             RCL.clear();
 
         }
@@ -0,0 +1,52 @@
+package problems;
+
+/**
+ * An objective function over binary vectors that can be evaluated directly on
+ * their packed form, without building a solution first. Bit i % 64 of word i
+ * / 64 of a packed vector tells whether the decision variable i is set, and
+ * the bits past the last variable are zero. Evaluators over a binary domain
+ * implement this interface besides {@link Evaluator}, for solvers (such as
+ * the GA) that already keep their solutions packed.
+ */
+public interface BinaryEvaluator {
+
+    /**
+     * Evaluates a packed binary vector.
+     *
+     * @param bits the packed vector, with at least (n + 63) / 64 words.
+     * @return the evaluation of the vector.
+     */
+    public abstract double evaluateBits(long[] bits);
+
+    /**
+     * Evaluates a batch of packed binary vectors. Evaluators able to share
+     * work among the vectors of a batch should override this method, since
+     * the default implementation evaluates them one at a time.
+     *
+     * @param bits the packed vectors.
+     * @param count number of vectors.
+     * @param values receives the evaluation of each vector.
+     */
+    public default void evaluateBitsBatch(long[][] bits, int count, double[] values) {
+        for (int s = 0; s < count; s++) {
+            values[s] = evaluateBits(bits[s]);
+        }
+    }
+
+    /**
+     * Evaluates a packed binary vector from the evaluation of another one
+     * (e.g., of the parent of a GA offspring) and of the variables in which
+     * they differ, when that is cheaper than evaluating the vector from
+     * scratch. The default implementation never finds it cheaper.
+     *
+     * @param bits the packed vector under evaluation.
+     * @param base the packed vector already evaluated.
+     * @param baseValue the evaluation of base.
+     * @return the evaluation of bits, or null if it should be evaluated from
+     * scratch instead.
+     */
+    public default Double evaluateBitsFrom(long[] bits, long[] base, double baseValue) {
+        return null;
+    }
+
+}
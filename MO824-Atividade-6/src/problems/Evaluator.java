@@ -1,5 +1,6 @@
 package problems;
 
+import java.util.List;
 import solutions.Solution;
 
 /**
@@ -30,6 +31,20 @@ public interface Evaluator<E> {
      */
     public abstract Double evaluate(Solution<E> sol);
 
+    /**
+     * Evaluates a batch of solutions, setting the cost of each one.
+     * Evaluators able to share work among the solutions of a batch should
+     * override this method, since the default implementation evaluates them
+     * one at a time.
+     *
+     * @param sols the solutions under evaluation.
+     */
+    public default void evaluateBatch(List<? extends Solution<E>> sols) {
+        for (Solution<E> sol : sols) {
+            evaluate(sol);
+        }
+    }
+
     /**
      * Evaluates the cost variation of inserting an element into a solution
      * according to an objective function.
@@ -67,4 +82,63 @@ public interface Evaluator<E> {
      */
     public abstract Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
 
+    /**
+     * Inserts an element into a solution and updates the solution cost.
+     * Evaluators able to track the move incrementally should override this
+     * method, since the default implementation evaluates the whole solution.
+     *
+     * @param elem the element being inserted.
+     * @param sol the solution receiving the element.
+     * @return the cost of the solution after the insertion.
+     */
+    public default Double applyInsertion(E elem, Solution<E> sol) {
+        sol.add(elem);
+        return evaluate(sol);
+    }
+
+    /**
+     * Removes an element from a solution and updates the solution cost.
+     * Evaluators able to track the move incrementally should override this
+     * method, since the default implementation evaluates the whole solution.
+     *
+     * @param elem the element being removed.
+     * @param sol the solution losing the element.
+     * @return the cost of the solution after the removal.
+     */
+    public default Double applyRemoval(E elem, Solution<E> sol) {
+        sol.remove(elem);
+        return evaluate(sol);
+    }
+
+    /**
+     * Exchanges an element of a solution (elemOut) by another one (elemIn)
+     * and updates the solution cost. Evaluators able to track the move
+     * incrementally should override this method, since the default
+     * implementation evaluates the whole solution.
+     *
+     * @param elemIn the element entering the solution.
+     * @param elemOut the element leaving the solution.
+     * @param sol the solution being modified.
+     * @return the cost of the solution after the exchange.
+     */
+    public default Double applyExchange(E elemIn, E elemOut, Solution<E> sol) {
+        sol.remove(elemOut);
+        sol.add(elemIn);
+        return evaluate(sol);
+    }
+
+    /**
+     * Creates an evaluation context for this objective function, i.e., an
+     * evaluator of the same function that shares its immutable problem data
+     * but keeps its own working state. An evaluator may only be used by one
+     * thread at a time, so concurrent solvers over one problem should each
+     * evaluate through their own context. The default implementation returns
+     * the evaluator itself, which is only correct for stateless evaluators.
+     *
+     * @return an evaluator of the same function with independent state.
+     */
+    public default Evaluator<E> newContext() {
+        return this;
+    }
+
 }
@@ -0,0 +1,336 @@
+package problems.qbf;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format for QBF instances, meant to be memory-mapped instead of
+ * parsed. All values are little-endian. A file starts with a header of
+ * {@link #HEADER_SIZE} bytes:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number, the characters "QBFB"
+ *      4     4  format version, currently 1
+ *      8     4  n, the dimension of the instance
+ *     12     1  element type, one of the TYPE_* constants
+ *     13     1  flags, see {@link #FLAG_SYMMETRIC}
+ *     14     2  reserved (zero)
+ *     16     8  CRC-32 of every byte after the header
+ *     24     8  reserved (zero)
+ * </pre>
+ *
+ * followed by the coefficient block. When {@link #FLAG_SYMMETRIC} is set, the
+ * block holds the diagonal of A as n doubles and then the symmetrized matrix S
+ * = A + A' with a zeroed diagonal, as n rows of n elements. Such files are
+ * used in place by a {@link MappedQBFMatrix}. Otherwise, the block holds only
+ * the upper triangle of A packed row by row, as in the text format, which
+ * halves the file but must be copied to the heap when loaded, and so is
+ * limited to {@link PackedQBFMatrix#MAX_SIZE}.
+ *
+ * Text instances are converted with {@link #main(String[])}.
+ */
+public class BinaryInstance {
+
+    /**
+     * The characters "QBFB", read as a little-endian int.
+     */
+    public static final int MAGIC = 0x42464251;
+
+    /**
+     * Current version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the header, in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Coefficients stored as signed bytes.
+     */
+    public static final int TYPE_INT8 = 1;
+
+    /**
+     * Coefficients stored as signed shorts.
+     */
+    public static final int TYPE_INT16 = 2;
+
+    /**
+     * Coefficients stored as doubles.
+     */
+    public static final int TYPE_FLOAT64 = 3;
+
+    /**
+     * Flag telling that the coefficient block holds the full symmetrized
+     * matrix, instead of the packed upper triangle.
+     */
+    public static final int FLAG_SYMMETRIC = 1;
+
+    /**
+     * Size of the buffer used when writing and checksumming.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Gives the number of bytes of an element type.
+     *
+     * @param type one of the TYPE_* constants.
+     * @return the size of an element, in bytes.
+     */
+    public static int elementSize(int type) {
+        switch (type) {
+            case TYPE_INT8:
+                return 1;
+            case TYPE_INT16:
+                return 2;
+            case TYPE_FLOAT64:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Unknown element type " + type);
+        }
+    }
+
+    /**
+     * Tells whether a file is a binary instance, by looking at its magic
+     * number.
+     *
+     * @param filename name of the instance file.
+     * @return true if the file is a binary instance.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public static boolean isBinary(String filename) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+            return file.length() >= HEADER_SIZE && Integer.reverseBytes(file.readInt()) == MAGIC;
+        }
+    }
+
+    /**
+     * Loads the matrix of a binary instance. A symmetric file is mapped and
+     * used in place, regardless of the storage mode; a packed one is copied
+     * into the matrix chosen by the storage mode, as for text instances.
+     *
+     * @param filename name of the binary instance.
+     * @param storage the storage mode (see {@link QBF#QBF(String, int)}).
+     * @return the matrix of coefficients.
+     * @throws IOException if the file is not a valid binary instance.
+     */
+    public static QBFMatrix load(String filename, int storage) throws IOException {
+
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = readHeader(channel, filename);
+            int size = header.getInt(8);
+            int type = header.get(12);
+            int flags = header.get(13);
+
+            if ((flags & FLAG_SYMMETRIC) != 0) {
+                return new MappedQBFMatrix(channel, HEADER_SIZE, size, type);
+            }
+
+            if (size > PackedQBFMatrix.MAX_SIZE) {
+                throw new IOException(filename + " has dimension " + size + ", but a packed instance holds at most "
+                        + PackedQBFMatrix.MAX_SIZE + "; larger instances must use the symmetric layout, which is mapped in place");
+            }
+
+            /* the block is copied in segments, as a mapping is limited to 2 GB */
+            int length = (int) ((long) size * (size + 1) / 2);
+            int elementSize = elementSize(type);
+            int perSegment = (int) (MappedQBFMatrix.SEGMENT / elementSize);
+            short[] integral = (type == TYPE_FLOAT64) ? null : new short[length];
+            double[] upper = (type == TYPE_FLOAT64) ? new double[length] : null;
+            for (int from = 0; from < length; from += perSegment) {
+                int count = Math.min(perSegment, length - from);
+                ByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (long) from * elementSize, (long) count * elementSize)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                if (type == TYPE_INT8) {
+                    for (int k = 0; k < count; k++) {
+                        integral[from + k] = block.get(k);
+                    }
+                } else if (type == TYPE_INT16) {
+                    block.asShortBuffer().get(integral, from, count);
+                } else {
+                    block.asDoubleBuffer().get(upper, from, count);
+                }
+            }
+            return QBF.buildMatrix(size, upper, integral, storage);
+        }
+    }
+
+    /**
+     * Reads and validates the header of a binary instance.
+     */
+    private static ByteBuffer readHeader(FileChannel channel, String filename) throws IOException {
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException(filename + " is not a binary QBF instance");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException(filename + " has unsupported format version " + header.getInt(4));
+        }
+
+        int size = header.getInt(8);
+        int type = header.get(12);
+        if (type != TYPE_INT8 && type != TYPE_INT16 && type != TYPE_FLOAT64) {
+            throw new IOException(filename + " has unknown element type " + type);
+        }
+        long block = ((header.get(13) & FLAG_SYMMETRIC) != 0)
+                ? 8L * size + (long) size * size * elementSize(type)
+                : (long) size * (size + 1) / 2 * elementSize(type);
+        if (size < 0 || channel.size() != HEADER_SIZE + block) {
+            throw new IOException(filename + " is truncated or has a corrupt header");
+        }
+        return header;
+    }
+
+    /**
+     * Checks the integrity of a binary instance against the checksum in its
+     * header. This reads the whole file, so it is not done when loading.
+     *
+     * @param filename name of the binary instance.
+     * @return true if the checksum matches.
+     * @throws IOException if the file is not a valid binary instance.
+     */
+    public static boolean verify(String filename) throws IOException {
+
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = readHeader(channel, filename);
+
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = HEADER_SIZE;
+            int read;
+            while ((read = channel.read(buffer, position)) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+                position += read;
+            }
+            return crc.getValue() == header.getLong(16);
+        }
+    }
+
+    /**
+     * Writes a matrix of coefficients as a binary instance. The narrowest
+     * element type able to represent every coefficient exactly is used.
+     *
+     * @param A the matrix of coefficients.
+     * @param filename name of the binary instance to be written.
+     * @param symmetric true to write the full symmetrized matrix, which can be
+     * used in place, false to write only the packed upper triangle.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public static void write(QBFMatrix A, String filename, boolean symmetric) throws IOException {
+
+        int size = A.size;
+        int type = TYPE_INT8;
+        for (int i = 0; i < size && type != TYPE_FLOAT64; i++) {
+            for (int j = i; j < size; j++) {
+                double val = A.get(i, j);
+                if (val != Math.rint(val) || val < Short.MIN_VALUE || val > Short.MAX_VALUE) {
+                    type = TYPE_FLOAT64;
+                    break;
+                } else if (val < Byte.MIN_VALUE || val > Byte.MAX_VALUE) {
+                    type = TYPE_INT16;
+                }
+            }
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(filename, "rw")) {
+            file.setLength(0);
+            FileChannel channel = file.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            long position = HEADER_SIZE;
+
+            if (symmetric) {
+                for (int i = 0; i < size; i++) {
+                    position = reserve(channel, buffer, crc, position, 8);
+                    buffer.putDouble(A.diagonal(i));
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                for (int j = symmetric ? 0 : i; j < size; j++) {
+                    double val = !symmetric ? A.get(i, j) : (j == i) ? 0.0 : A.pair(i, j);
+                    position = reserve(channel, buffer, crc, position, 8);
+                    if (type == TYPE_INT8) {
+                        buffer.put((byte) val);
+                    } else if (type == TYPE_INT16) {
+                        buffer.putShort((short) val);
+                    } else {
+                        buffer.putDouble(val);
+                    }
+                }
+            }
+            flush(channel, buffer, crc, position);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size);
+            header.put((byte) type).put((byte) (symmetric ? FLAG_SYMMETRIC : 0)).putShort((short) 0);
+            header.putLong(crc.getValue()).putLong(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Makes room for a value in the write buffer, flushing it if needed.
+     *
+     * @return the file position where the buffer will next be flushed.
+     */
+    private static long reserve(FileChannel channel, ByteBuffer buffer, CRC32 crc, long position, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            return flush(channel, buffer, crc, position);
+        }
+        return position;
+    }
+
+    private static long flush(FileChannel channel, ByteBuffer buffer, CRC32 crc, long position) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+        return position;
+    }
+
+    /**
+     * Converts a text instance into a binary one. The text instance is read
+     * into memory first, so it is limited to {@link PackedQBFMatrix#MAX_SIZE}.
+     *
+     * @param args the text instance, the binary instance to be written, and
+     * optionally "packed" to write only the upper triangle.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+            System.err.println("Usage: BinaryInstance <text instance> <binary instance> [packed]");
+            System.exit(1);
+        }
+
+        long startTime = System.currentTimeMillis();
+        QBF qbf = new QBF(args[0], QBF.PACKED);
+        write(qbf.A, args[1], !(args.length > 2 && args[2].equals("packed")));
+        long endTime = System.currentTimeMillis();
+        System.out.println("Converted " + args[0] + " (n = " + qbf.size + ") to " + args[1]
+                + " in " + (double) (endTime - startTime) / (double) 1000 + " seg");
+
+    }
+
+}
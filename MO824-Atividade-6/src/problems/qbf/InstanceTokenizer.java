@@ -0,0 +1,211 @@
+package problems.qbf;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the numbers of an instance file straight from a memory-mapped view of
+ * it, without the intermediate characters, strings and per-token objects of a
+ * {@link java.io.StreamTokenizer}. Numbers are separated by any whitespace and
+ * may have a sign, a decimal fraction and an exponent.
+ *
+ * Files larger than a single mapping are traversed through a sliding window,
+ * remapped at the start of the token being read whenever the window is about
+ * to end, so a token never straddles two mappings.
+ */
+public class InstanceTokenizer implements Closeable {
+
+    /**
+     * Size of the mapped window, in bytes.
+     */
+    private static final long WINDOW = 1L << 28;
+
+    /**
+     * Number of bytes the window must still hold past the start of a token
+     * for it to be read without remapping. Longer tokens that run into the
+     * end of the window are read again from a window mapped at their start.
+     */
+    private static final int MAX_TOKEN = 64;
+
+    /**
+     * Exact powers of ten that can be represented as a double.
+     */
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10.0;
+        }
+    }
+
+    private final RandomAccessFile file;
+
+    private final FileChannel channel;
+
+    private final long length;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * Position in the file of the first byte of {@link #buffer}.
+     */
+    private long base;
+
+    /**
+     * Opens an instance file for reading.
+     *
+     * @param filename name of the instance file.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public InstanceTokenizer(String filename) throws IOException {
+        file = new RandomAccessFile(filename, "r");
+        channel = file.getChannel();
+        length = channel.size();
+        map(0);
+    }
+
+    private void map(long position) throws IOException {
+        base = position;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, length - position));
+    }
+
+    /**
+     * Skips whitespace and makes sure the next token lies entirely inside the
+     * current window.
+     *
+     * @return false if the end of the file was reached.
+     */
+    private boolean skipWhitespace() throws IOException {
+        while (true) {
+            int pos = buffer.position();
+            int limit = buffer.limit();
+            while (pos < limit && buffer.get(pos) <= ' ') {
+                pos++;
+            }
+            if (base + limit == length || limit - pos >= MAX_TOKEN) {
+                buffer.position(pos);
+                return pos < limit;
+            }
+            map(base + pos);
+        }
+    }
+
+    /**
+     * Reads the next number of the file.
+     *
+     * @return the value of the number.
+     * @throws EOFException if there are no more numbers in the file.
+     * @throws IOException if the next token is not a number.
+     */
+    public double nextNumber() throws IOException {
+
+        if (!skipWhitespace()) {
+            throw new EOFException("Unexpected end of instance file");
+        }
+
+        MappedByteBuffer b = buffer;
+        int start = b.position();
+        int limit = b.limit();
+        int pos = start;
+
+        boolean negative = false;
+        byte c = b.get(pos);
+        if (c == '-' || c == '+') {
+            negative = (c == '-');
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        int mantissaDigits = 0;
+
+        while (pos < limit && (c = b.get(pos)) >= '0' && c <= '9') {
+            mantissaDigits++;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                scale--;
+                exact = false;
+            }
+            pos++;
+        }
+        if (pos < limit && b.get(pos) == '.') {
+            pos++;
+            while (pos < limit && (c = b.get(pos)) >= '0' && c <= '9') {
+                mantissaDigits++;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    scale++;
+                }
+                pos++;
+            }
+        }
+
+        boolean exponent = pos < limit && ((c = b.get(pos)) == 'e' || c == 'E');
+        if (exponent) {
+            pos++;
+            while (pos < limit && ((c = b.get(pos)) == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                pos++;
+            }
+        }
+
+        if (pos == limit && base + limit < length) {
+            /*
+             * The token runs into the end of the window, so it may go on in
+             * the next one: read it again from a window mapped at its start.
+             */
+            if (start == 0) {
+                throw new IOException("Number too long at byte " + base + " of instance file");
+            }
+            map(base + start);
+            return nextNumber();
+        }
+
+        if (mantissaDigits == 0 || (pos < limit && b.get(pos) > ' ')) {
+            throw new IOException("Malformed number at byte " + (base + start) + " of instance file");
+        }
+        b.position(pos);
+
+        /*
+         * Integers and short decimals are converted exactly from the
+         * mantissa; anything else falls back to the standard parser.
+         */
+        if (exact && !exponent && digits <= 15 && scale < POW10.length) {
+            double val = (scale == 0) ? mantissa : mantissa / POW10[scale];
+            return negative ? -val : val;
+        }
+        return parseSlow(start, pos);
+    }
+
+    private double parseSlow(int start, int end) throws IOException {
+        byte[] token = new byte[end - start];
+        for (int i = 0; i < token.length; i++) {
+            token[i] = buffer.get(start + i);
+        }
+        try {
+            return Double.parseDouble(new String(token, "US-ASCII"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed number at byte " + (base + start) + " of instance file", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        file.close();
+    }
+
+}
@@ -0,0 +1,238 @@
+package problems.qbf;
+
+/**
+ * Matrix storage specialized for instances whose coefficients are all
+ * integers. It keeps the same symmetrized layout of
+ * {@link SymmetricQBFMatrix}, S = A + A' with a zeroed diagonal, but stores S
+ * in a byte[] when every coefficient lies in [-128, 127] and in a short[]
+ * otherwise, which takes one (or two) bytes per entry instead of eight. Sums
+ * are accumulated in long, so evaluations are exact and free of rounding
+ * drift.
+ */
+public class IntegralQBFMatrix extends QBFMatrix {
+
+    /**
+     * The symmetrized matrix when its coefficients fit in a byte, or null.
+     */
+    protected final byte[] S8;
+
+    /**
+     * The symmetrized matrix when its coefficients need a short, or null.
+     */
+    protected final short[] S16;
+
+    /**
+     * The diagonal of A.
+     */
+    protected final long[] diag;
+
+    /**
+     * Builds the integral matrix from the upper triangle of A.
+     *
+     * @param size dimension of the matrix.
+     * @param upper the upper triangle of A packed row by row, i.e., a_{00} ...
+     * a_{0,n-1}, a_{11} ... a_{1,n-1}, ..., a_{n-1,n-1}.
+     * @throws IllegalArgumentException if size is above
+     * {@link SymmetricQBFMatrix#MAX_SIZE}.
+     */
+    public IntegralQBFMatrix(int size, short[] upper) {
+        super(size);
+        if (size > SymmetricQBFMatrix.MAX_SIZE) {
+            throw new IllegalArgumentException("Dimension " + size + " is above the " + SymmetricQBFMatrix.MAX_SIZE + " supported by the integral storage");
+        }
+        diag = new long[size];
+
+        boolean fitsByte = true;
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            diag[i] = upper[k++];
+            for (int j = i + 1; j < size; j++, k++) {
+                if (upper[k] < Byte.MIN_VALUE || upper[k] > Byte.MAX_VALUE) {
+                    fitsByte = false;
+                }
+            }
+        }
+
+        S8 = fitsByte ? new byte[size * size] : null;
+        S16 = fitsByte ? null : new short[size * size];
+
+        k = 0;
+        for (int i = 0; i < size; i++) {
+            k++;
+            for (int j = i + 1; j < size; j++, k++) {
+                if (fitsByte) {
+                    S8[i * size + j] = (byte) upper[k];
+                    S8[j * size + i] = (byte) upper[k];
+                } else {
+                    S16[i * size + j] = upper[k];
+                    S16[j * size + i] = upper[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells whether the coefficients of the matrix are stored in a byte[].
+     *
+     * @return true if S is stored in a byte[], false if in a short[].
+     */
+    public boolean isByteBacked() {
+        return S8 != null;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) {
+            return diag[i];
+        }
+        return (j > i) ? pair(i, j) : 0.0;
+    }
+
+    @Override
+    public double diagonal(int i) {
+        return diag[i];
+    }
+
+    @Override
+    public double pair(int i, int j) {
+        return (S8 != null) ? S8[i * size + j] : S16[i * size + j];
+    }
+
+    @Override
+    public double contribution(int i, boolean[] x) {
+
+        long sum = 0;
+        int row = i * size;
+
+        if (S8 != null) {
+            for (int j = 0; j < size; j++) {
+                if (x[j]) {
+                    sum += S8[row + j];
+                }
+            }
+        } else {
+            for (int j = 0; j < size; j++) {
+                if (x[j]) {
+                    sum += S16[row + j];
+                }
+            }
+        }
+
+        return sum + diag[i];
+    }
+
+    @Override
+    public void addPairs(int i, double sign, double[] gain) {
+
+        int row = i * size;
+
+        if (S8 != null) {
+            for (int j = 0; j < size; j++) {
+                gain[j] += sign * S8[row + j];
+            }
+        } else {
+            for (int j = 0; j < size; j++) {
+                gain[j] += sign * S16[row + j];
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} Rows are fused four at a time, so the gain vector is
+     * loaded and stored once for every four rows of S.
+     */
+    @Override
+    public void addPairs(int[] rows, int count, double sign, double[] gain) {
+
+        int t = 0;
+        for (; t + 4 <= count; t += 4) {
+            int r0 = rows[t] * size;
+            int r1 = rows[t + 1] * size;
+            int r2 = rows[t + 2] * size;
+            int r3 = rows[t + 3] * size;
+            if (S8 != null) {
+                for (int j = 0; j < size; j++) {
+                    gain[j] += sign * (S8[r0 + j] + S8[r1 + j] + S8[r2 + j] + S8[r3 + j]);
+                }
+            } else {
+                for (int j = 0; j < size; j++) {
+                    gain[j] += sign * (S16[r0 + j] + S16[r1 + j] + S16[r2 + j] + S16[r3 + j]);
+                }
+            }
+        }
+        for (; t < count; t++) {
+            addPairs(rows[t], sign, gain);
+        }
+    }
+
+    @Override
+    public double evaluate(boolean[] x) {
+
+        long sum = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (!x[i]) {
+                continue;
+            }
+
+            long aux = diag[i];
+            int row = i * size;
+            for (int j = i + 1; j < size; j++) {
+                if (x[j]) {
+                    aux += (S8 != null) ? S8[row + j] : S16[row + j];
+                }
+            }
+
+            sum += aux;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double evaluate(int[] support, int count) {
+
+        long sum = 0;
+
+        for (int a = 0; a < count; a++) {
+            int row = support[a] * size;
+            sum += diag[support[a]];
+            if (S8 != null) {
+                for (int b = a + 1; b < count; b++) {
+                    sum += S8[row + support[b]];
+                }
+            } else {
+                for (int b = a + 1; b < count; b++) {
+                    sum += S16[row + support[b]];
+                }
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    protected double sumPairs(int i, int[] support, int from, int to) {
+
+        long sum = 0;
+        int row = i * size;
+
+        if (S8 != null) {
+            for (int b = from; b < to; b++) {
+                sum += S8[row + support[b]];
+            }
+        } else {
+            for (int b = from; b < to; b++) {
+                sum += S16[row + support[b]];
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    protected long footprint() {
+        return (S8 != null) ? S8.length : 2L * S16.length;
+    }
+
+}
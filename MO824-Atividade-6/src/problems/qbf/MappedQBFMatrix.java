@@ -0,0 +1,263 @@
+package problems.qbf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Matrix storage that reads the symmetrized matrix S = A + A' in place from a
+ * memory-mapped binary instance (see {@link BinaryInstance}), with the same
+ * row-major layout of {@link SymmetricQBFMatrix}. Nothing but the diagonal is
+ * copied to the heap, so loading takes time independent of the size of the
+ * instance, and processes mapping the same file share its pages through the
+ * operating system cache.
+ *
+ * The rows are mapped in segments, each holding a whole number of rows, so
+ * that instances larger than a single mapping are supported.
+ */
+public class MappedQBFMatrix extends QBFMatrix {
+
+    /**
+     * Maximum number of bytes of a segment.
+     */
+    static final long SEGMENT = 1L << 30;
+
+    /**
+     * Element type of S, one of the BinaryInstance.TYPE_* constants.
+     */
+    protected final int type;
+
+    /**
+     * The diagonal of A.
+     */
+    protected final double[] diag;
+
+    /**
+     * Number of rows of S in each segment.
+     */
+    protected final int rowsPerSegment;
+
+    /**
+     * The segments of S, for {@link BinaryInstance#TYPE_INT8}, or null.
+     */
+    protected final ByteBuffer[] bytes;
+
+    /**
+     * The segments of S, for {@link BinaryInstance#TYPE_INT16}, or null.
+     */
+    protected final ShortBuffer[] shorts;
+
+    /**
+     * The segments of S, for {@link BinaryInstance#TYPE_FLOAT64}, or null.
+     */
+    protected final DoubleBuffer[] doubles;
+
+    /**
+     * Maps the symmetrized matrix of a binary instance.
+     *
+     * @param channel the channel of the binary instance.
+     * @param position position in the file where the diagonal block starts.
+     * @param size dimension of the matrix.
+     * @param type element type of S.
+     * @throws IOException Necessary for I/O operations.
+     */
+    MappedQBFMatrix(FileChannel channel, long position, int size, int type) throws IOException {
+        super(size);
+        this.type = type;
+
+        diag = new double[size];
+        channel.map(FileChannel.MapMode.READ_ONLY, position, 8L * size)
+                .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(diag);
+        position += 8L * size;
+
+        long rowBytes = (long) BinaryInstance.elementSize(type) * size;
+        rowsPerSegment = (int) Math.max(1, Math.min(size, SEGMENT / Math.max(1, rowBytes)));
+        int segments = (size + rowsPerSegment - 1) / rowsPerSegment;
+
+        bytes = (type == BinaryInstance.TYPE_INT8) ? new ByteBuffer[segments] : null;
+        shorts = (type == BinaryInstance.TYPE_INT16) ? new ShortBuffer[segments] : null;
+        doubles = (type == BinaryInstance.TYPE_FLOAT64) ? new DoubleBuffer[segments] : null;
+
+        for (int s = 0; s < segments; s++) {
+            int rows = Math.min(rowsPerSegment, size - s * rowsPerSegment);
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY,
+                    position + s * rowsPerSegment * rowBytes, rows * rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+            if (bytes != null) {
+                bytes[s] = segment;
+            } else if (shorts != null) {
+                shorts[s] = segment.asShortBuffer();
+            } else {
+                doubles[s] = segment.asDoubleBuffer();
+            }
+        }
+    }
+
+    /**
+     * Gives the position of row i inside its segment.
+     *
+     * @param i row of the matrix.
+     * @return the index of s_{i0} in segment i / rowsPerSegment.
+     */
+    protected final int rowOffset(int i) {
+        return (i % rowsPerSegment) * size;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) {
+            return diag[i];
+        }
+        return (j > i) ? pair(i, j) : 0.0;
+    }
+
+    @Override
+    public double diagonal(int i) {
+        return diag[i];
+    }
+
+    @Override
+    public double pair(int i, int j) {
+        int seg = i / rowsPerSegment;
+        int pos = rowOffset(i) + j;
+        if (bytes != null) {
+            return bytes[seg].get(pos);
+        } else if (shorts != null) {
+            return shorts[seg].get(pos);
+        }
+        return doubles[seg].get(pos);
+    }
+
+    @Override
+    public double contribution(int i, boolean[] x) {
+        return diag[i] + sumRow(i, 0, x);
+    }
+
+    /**
+     * Sums the entries s_{ij} of row i, from column from on, whose variable
+     * x_j is set.
+     */
+    private double sumRow(int i, int from, boolean[] x) {
+
+        int seg = i / rowsPerSegment;
+        int row = rowOffset(i);
+
+        if (bytes != null) {
+            ByteBuffer b = bytes[seg];
+            long sum = 0;
+            for (int j = from; j < size; j++) {
+                if (x[j]) {
+                    sum += b.get(row + j);
+                }
+            }
+            return sum;
+        } else if (shorts != null) {
+            ShortBuffer b = shorts[seg];
+            long sum = 0;
+            for (int j = from; j < size; j++) {
+                if (x[j]) {
+                    sum += b.get(row + j);
+                }
+            }
+            return sum;
+        }
+
+        DoubleBuffer b = doubles[seg];
+        double sum = 0.0;
+        for (int j = from; j < size; j++) {
+            if (x[j]) {
+                sum += b.get(row + j);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void addPairs(int i, double sign, double[] gain) {
+
+        int seg = i / rowsPerSegment;
+        int row = rowOffset(i);
+
+        if (bytes != null) {
+            ByteBuffer b = bytes[seg];
+            for (int j = 0; j < size; j++) {
+                gain[j] += sign * b.get(row + j);
+            }
+        } else if (shorts != null) {
+            ShortBuffer b = shorts[seg];
+            for (int j = 0; j < size; j++) {
+                gain[j] += sign * b.get(row + j);
+            }
+        } else {
+            DoubleBuffer b = doubles[seg];
+            for (int j = 0; j < size; j++) {
+                gain[j] += sign * b.get(row + j);
+            }
+        }
+    }
+
+    @Override
+    public double evaluate(boolean[] x) {
+
+        double sum = 0.0;
+
+        for (int i = 0; i < size; i++) {
+            if (x[i]) {
+                sum += diag[i] + sumRow(i, i + 1, x);
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double evaluate(int[] support, int count) {
+
+        double sum = 0.0;
+
+        for (int a = 0; a < count; a++) {
+            int i = support[a];
+            sum += diag[i] + sumPairs(i, support, a + 1, count);
+        }
+
+        return sum;
+    }
+
+    @Override
+    protected double sumPairs(int i, int[] support, int from, int to) {
+
+        int seg = i / rowsPerSegment;
+        int row = rowOffset(i);
+
+        if (bytes != null) {
+            ByteBuffer b = bytes[seg];
+            long sum = 0;
+            for (int k = from; k < to; k++) {
+                sum += b.get(row + support[k]);
+            }
+            return sum;
+        } else if (shorts != null) {
+            ShortBuffer b = shorts[seg];
+            long sum = 0;
+            for (int k = from; k < to; k++) {
+                sum += b.get(row + support[k]);
+            }
+            return sum;
+        }
+
+        DoubleBuffer b = doubles[seg];
+        double sum = 0.0;
+        for (int k = from; k < to; k++) {
+            sum += b.get(row + support[k]);
+        }
+        return sum;
+    }
+
+    @Override
+    protected long footprint() {
+        return (long) BinaryInstance.elementSize(type) * size * size;
+    }
+
+}
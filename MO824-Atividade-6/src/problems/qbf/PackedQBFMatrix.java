@@ -0,0 +1,159 @@
+package problems.qbf;
+
+/**
+ * Matrix storage that keeps only the upper triangle of A, packed row by row
+ * in n(n+1)/2 entries, exactly as it is laid out in the input files. It halves
+ * the memory of {@link SymmetricQBFMatrix} at the cost of strided reads for
+ * the part of a contribution lying below the diagonal, so it is meant for
+ * memory-constrained runs.
+ */
+public class PackedQBFMatrix extends QBFMatrix {
+
+    /**
+     * Largest dimension whose packed upper triangle fits in one array.
+     */
+    public static final int MAX_SIZE = 65535;
+
+    /**
+     * The upper triangle of A, a_{ij} (j &ge; i) kept at
+     * upper[offset(i) + j - i].
+     */
+    protected final double[] upper;
+
+    /**
+     * Builds the packed matrix from the upper triangle of A.
+     *
+     * @param size dimension of the matrix.
+     * @param upper the upper triangle of A packed row by row, i.e., a_{00} ...
+     * a_{0,n-1}, a_{11} ... a_{1,n-1}, ..., a_{n-1,n-1}.
+     * @throws IllegalArgumentException if size is above {@link #MAX_SIZE}.
+     */
+    public PackedQBFMatrix(int size, double[] upper) {
+        super(size);
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("Dimension " + size + " is above the " + MAX_SIZE + " supported by the packed storage");
+        }
+        this.upper = upper;
+    }
+
+    /**
+     * Gives the position of a_{ii} in the packed array.
+     *
+     * @param i row of the matrix.
+     * @return the offset of row i.
+     */
+    protected final int offset(int i) {
+        return (int) ((long) i * size - (long) i * (i - 1) / 2);
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return (j >= i) ? upper[offset(i) + j - i] : 0.0;
+    }
+
+    @Override
+    public double diagonal(int i) {
+        return upper[offset(i)];
+    }
+
+    @Override
+    public double pair(int i, int j) {
+        return (j > i) ? upper[offset(i) + j - i] : upper[offset(j) + i - j];
+    }
+
+    @Override
+    public double contribution(int i, boolean[] x) {
+
+        double sum = 0.0;
+
+        int off = 0;
+        for (int j = 0; j < i; j++) {
+            if (x[j]) {
+                sum += upper[off + i - j];
+            }
+            off += size - j;
+        }
+
+        sum += upper[off];
+        for (int j = i + 1; j < size; j++) {
+            if (x[j]) {
+                sum += upper[off + j - i];
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void addPairs(int i, double sign, double[] gain) {
+
+        int off = 0;
+        for (int j = 0; j < i; j++) {
+            gain[j] += sign * upper[off + i - j];
+            off += size - j;
+        }
+
+        for (int j = i + 1; j < size; j++) {
+            gain[j] += sign * upper[off + j - i];
+        }
+    }
+
+    @Override
+    public double evaluate(boolean[] x) {
+
+        double sum = 0.0;
+
+        int off = 0;
+        for (int i = 0; i < size; i++) {
+            if (x[i]) {
+                double aux = 0.0;
+                for (int j = i; j < size; j++) {
+                    if (x[j]) {
+                        aux += upper[off + j - i];
+                    }
+                }
+                sum += aux;
+            }
+            off += size - i;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double evaluate(int[] support, int count) {
+
+        double sum = 0.0;
+
+        for (int a = 0; a < count; a++) {
+            int i = support[a];
+            int off = offset(i) - i;
+            double aux = upper[off + i];
+            for (int b = a + 1; b < count; b++) {
+                aux += upper[off + support[b]];
+            }
+            sum += aux;
+        }
+
+        return sum;
+    }
+
+    @Override
+    protected double sumPairs(int i, int[] support, int from, int to) {
+
+        double sum = 0.0;
+        int off = offset(i) - i;
+
+        for (int b = from; b < to; b++) {
+            sum += upper[off + support[b]];
+        }
+
+        return sum;
+    }
+
+    @Override
+    protected long footprint() {
+        return 8L * upper.length;
+    }
+
+}
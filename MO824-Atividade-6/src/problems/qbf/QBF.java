@@ -1,11 +1,9 @@
 package problems.qbf;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StreamTokenizer;
 import java.util.Arrays;
+import java.util.List;
+import problems.BinaryEvaluator;
 import problems.Evaluator;
 import solutions.Solution;
 
@@ -15,6 +13,12 @@ import solutions.Solution;
  * a QBF can be expressed as f(x) = x'.A.x The problem of minimizing a QBF is
  * NP-hard [1], even when no constraints are considered.
  *
+ * The coefficients are kept in an immutable {@link QBFMatrix}, while a QBF
+ * object holds the working state of the evaluations (the assignment, the gain
+ * vector and the cached cost). A QBF is therefore not thread-safe, but is
+ * cheap to replicate: each thread should evaluate through its own context,
+ * obtained from {@link #newContext()}, all of them sharing one matrix.
+ *
  * [1] Kochenberger, et al. The unconstrained binary quadratic programming
  * problem: a survey. J Comb Optim (2014) 28:58–81. DOI
  * 10.1007/s10878-014-9734-0.
@@ -22,7 +26,7 @@ import solutions.Solution;
  * @author ccavellucci, fusberti
  *
  */
-public class QBF implements Evaluator<Integer> {
+public class QBF implements Evaluator<Integer>, BinaryEvaluator {
 
     /**
      * Dimension of the domain.
@@ -30,14 +34,119 @@ public class QBF implements Evaluator<Integer> {
     public final Integer size;
 
     /**
-     * The array of numbers representing the domain.
+     * The array of binary values representing the domain.
+     */
+    public final boolean[] variables;
+
+    /**
+     * Storage mode that keeps the symmetrized matrix A + A' in one contiguous
+     * row-major block (see {@link SymmetricQBFMatrix}). Instances larger than
+     * {@link SymmetricQBFMatrix#MAX_SIZE} fall back to {@link #PACKED}.
+     */
+    public static final int SYMMETRIC = 1;
+
+    /**
+     * Storage mode that keeps only the packed upper triangle of A (see
+     * {@link PackedQBFMatrix}).
+     */
+    public static final int PACKED = 2;
+
+    /**
+     * Storage mode that keeps integer coefficients in a compact byte[] or
+     * short[] symmetrized matrix (see {@link IntegralQBFMatrix}). If the input
+     * holds any non-integral coefficient, {@link #SYMMETRIC} is used instead,
+     * and if its density is below {@link #SPARSE_DENSITY}, {@link #SPARSE} is
+     * used. Instances larger than {@link SymmetricQBFMatrix#MAX_SIZE} that are
+     * not sparse fall back to {@link #PACKED}.
      */
-    public final Double[] variables;
+    public static final int INTEGRAL = 3;
+
+    /**
+     * Storage mode that keeps only the nonzero coefficients in compressed
+     * sparse rows (see {@link SparseQBFMatrix}).
+     */
+    public static final int SPARSE = 4;
+
+    /**
+     * Fraction of nonzero off-diagonal coefficients below which an instance
+     * is automatically stored as {@link #SPARSE}.
+     */
+    public static final double SPARSE_DENSITY = 0.05;
+
+    /**
+     * Fraction of selected variables up to which a solution that is not bound
+     * to the evaluator is evaluated over its support only (see
+     * {@link #evaluateSupportQBF(Solution)}). Denser solutions are loaded into
+     * the evaluator state, whose gain vector then serves the move
+     * evaluations that usually follow.
+     */
+    public static final double SPARSE_SUPPORT = 0.75;
 
     /**
      * The matrix A of coefficients for the QBF f(x) = x'.A.x
      */
-    public Double[][] A;
+    protected QBFMatrix A;
+
+    /**
+     * The gain vector of the assignment held by the evaluator when it is bound
+     * to a solution (see {@link #bind(Solution)}). Entry gain[i] is the
+     * contribution of variable i, i.e., a_{ii} + \sum_{j != i} x_j (a_{ij} +
+     * a_{ji}), so that inserting (removing) i changes the QBF by +gain[i]
+     * (-gain[i]).
+     */
+    protected final double[] gain;
+
+    /**
+     * Whether the stateful incremental mode is enabled. In this mode the
+     * evaluator keeps {@link #variables} and {@link #gain} in sync with the
+     * last solution it was asked about, so that insertion, removal and
+     * exchange costs are answered in O(1).
+     */
+    protected boolean incremental = true;
+
+    /**
+     * The solution the evaluator state currently reflects, or null if the
+     * state is not bound to any solution.
+     */
+    private Solution<Integer> boundSol;
+
+    /**
+     * Modification count of {@link #boundSol} when the state was last synced.
+     */
+    private int boundModCount;
+
+    /**
+     * The QBF value of the bound assignment.
+     */
+    private double boundCost;
+
+    /**
+     * Auxiliary buffer holding the indices of the selected variables.
+     */
+    private final int[] selected;
+
+    /**
+     * Auxiliary stamps used to detect which elements left a bound solution.
+     */
+    private final int[] mark;
+
+    private int markEpoch = 0;
+
+    /**
+     * Auxiliary buffer holding the assignment a vector is evaluated from in
+     * {@link #evaluateBitsFrom(long[], long[], double)}.
+     */
+    private final boolean[] baseVariables;
+
+    /**
+     * Auxiliary buffers holding the supports and the values of a batch, grown
+     * as needed.
+     */
+    private int[] batchSupports = new int[0];
+
+    private int[] batchStarts = new int[1];
+
+    private double[] batchValues = new double[0];
 
     /**
      * The constructor for QuadracticBinaryFunction class. The filename of the
@@ -49,8 +158,67 @@ public class QBF implements Evaluator<Integer> {
      * @throws IOException Necessary for I/O operations.
      */
     public QBF(String filename) throws IOException {
-        size = readInput(filename);
+        this(filename, INTEGRAL);
+    }
+
+    /**
+     * The constructor for QuadracticBinaryFunction class, choosing how the
+     * matrix of coefficients A is laid out in memory.
+     *
+     * @param filename Name of the file containing the input for setting the
+     * QBF.
+     * @param storage The storage mode of matrix A ({@link #SYMMETRIC},
+     * {@link #PACKED}, {@link #INTEGRAL} or {@link #SPARSE}).
+     * @throws IOException Necessary for I/O operations.
+     */
+    public QBF(String filename, int storage) throws IOException {
+        size = readInput(filename, storage);
         variables = allocateVariables();
+        gain = new double[size];
+        selected = new int[size];
+        baseVariables = new boolean[size];
+        mark = new int[size];
+    }
+
+    /**
+     * The constructor for QuadracticBinaryFunction class over an already
+     * loaded matrix of coefficients. Matrices are immutable, so any number of
+     * QBFs may share one, each keeping its own evaluation state.
+     *
+     * @param A The matrix of coefficients of the QBF.
+     */
+    public QBF(QBFMatrix A) {
+        this.A = A;
+        size = A.size;
+        variables = allocateVariables();
+        gain = new double[size];
+        selected = new int[size];
+        baseVariables = new boolean[size];
+        mark = new int[size];
+    }
+
+    /**
+     * {@inheritDoc} The context shares the matrix of coefficients and copies
+     * the incremental mode of this QBF. Subclasses must override this method
+     * to create contexts of their own type.
+     */
+    @Override
+    public QBF newContext() {
+        QBF context = new QBF(A);
+        context.setIncremental(incremental);
+        return context;
+    }
+
+    /**
+     * Enables or disables the stateful incremental mode. When disabled, every
+     * evaluation resets the domain variables from the given solution and
+     * scans the matrix, as a stateless evaluator would.
+     *
+     * @param incremental true to enable the incremental mode.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        this.boundSol = null;
     }
 
     /**
@@ -62,9 +230,10 @@ public class QBF implements Evaluator<Integer> {
     public void setVariables(Solution<Integer> sol) {
 
         resetVariables();
+        boundSol = null;
         if (!sol.isEmpty()) {
             for (Integer elem : sol) {
-                variables[elem] = 1.0;
+                variables[elem] = true;
             }
         }
 
@@ -85,18 +254,143 @@ public class QBF implements Evaluator<Integer> {
      * computing a matrix multiplication x'.A.x. A better way to evaluate this
      * function when at most two variables are modified is given by methods
      * {@link #evaluateInsertionQBF(int)}, {@link #evaluateRemovalQBF(int)} and
-     * {@link #evaluateExchangeQBF(int,int)}.
+     * {@link #evaluateExchangeQBF(int,int)}. A solution other than the bound
+     * one and with at most {@link #SPARSE_SUPPORT} of the variables selected
+     * is evaluated over its support in O(k^2), leaving the evaluator state
+     * untouched.
      *
      * @return The evaluation of the QBF.
      */
     @Override
     public Double evaluate(Solution<Integer> sol) {
 
-        setVariables(sol);
+        if (sol != boundSol && sol.size() <= SPARSE_SUPPORT * size) {
+            return sol.cost = evaluateSupportQBF(sol);
+        }
+
+        prepare(sol);
         return sol.cost = evaluateQBF();
 
     }
 
+    /**
+     * Loads a solution into the evaluator state, either by binding it (in the
+     * incremental mode) or by simply setting the domain variables.
+     *
+     * @param sol the solution under evaluation.
+     */
+    protected void prepare(Solution<Integer> sol) {
+        if (incremental) {
+            bind(sol);
+        } else {
+            setVariables(sol);
+        }
+    }
+
+    /**
+     * Binds the evaluator state ({@link #variables}, {@link #gain} and the
+     * cached cost) to a solution. Nothing is done if the state already
+     * reflects the solution. If the bound solution was modified since the
+     * last call, only the elements that entered or left it are flipped, in
+     * O(n) each; any other solution is loaded from scratch in O(n.k), with k
+     * the number of elements in the solution.
+     *
+     * @param sol the solution the state must reflect.
+     */
+    protected void bind(Solution<Integer> sol) {
+
+        int modCount = sol.getModCount();
+        if (sol == boundSol && modCount == boundModCount) {
+            return;
+        }
+
+        if (sol == boundSol && resync(sol)) {
+            boundModCount = modCount;
+            return;
+        }
+
+        setVariables(sol);
+
+        for (int i = 0; i < size; i++) {
+            gain[i] = A.diagonal(i);
+        }
+        double cost = 0.0;
+        int k = 0;
+        for (int j = 0; j < size; j++) {
+            if (variables[j]) {
+                selected[k++] = j;
+                cost += A.diagonal(j);
+            }
+        }
+        A.addPairs(selected, k, 1.0, gain);
+        for (int i = 0; i < size; i++) {
+            if (variables[i]) {
+                cost += gain[i];
+            }
+        }
+
+        boundCost = cost / 2;
+        boundSol = sol;
+        boundModCount = modCount;
+    }
+
+    /**
+     * Brings the state of the bound solution up to date by flipping the
+     * elements that entered or left it.
+     *
+     * @param sol the bound solution, modified since it was last synced.
+     * @return false if too many elements changed and the solution should be
+     * loaded from scratch instead.
+     */
+    private boolean resync(Solution<Integer> sol) {
+
+        markEpoch++;
+        int changes = 0;
+        for (Integer elem : sol) {
+            mark[elem] = markEpoch;
+            if (!variables[elem]) {
+                changes++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (variables[i] && mark[i] != markEpoch) {
+                changes++;
+            }
+        }
+        if (changes > sol.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (variables[i] != (mark[i] == markEpoch)) {
+                flip(i);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Flips variable i in the bound state, updating the cached cost in O(1)
+     * and the gain vector in O(n).
+     *
+     * @param i index of the variable being flipped.
+     */
+    protected void flip(int i) {
+
+        double sign;
+        if (variables[i]) {
+            boundCost -= gain[i];
+            sign = -1.0;
+        } else {
+            boundCost += gain[i];
+            sign = 1.0;
+        }
+        variables[i] = !variables[i];
+
+        A.addPairs(i, sign, gain);
+    }
+
     /**
      * Evaluates a QBF by calculating the matrix multiplication that defines the
      * QBF: f(x) = x'.A.x .
@@ -105,21 +399,208 @@ public class QBF implements Evaluator<Integer> {
      */
     public Double evaluateQBF() {
 
-        Double aux = (double) 0, sum = (double) 0;
-        Double vecAux[] = new Double[size];
+        if (boundSol != null) {
+            return boundCost;
+        }
 
-        for (int i = 0; i < size; i++) {
+        return A.evaluate(variables);
+    }
+
+    /**
+     * {@inheritDoc} The supports of the solutions are sorted and laid one
+     * after the other, and evaluated together by
+     * {@link QBFMatrix#evaluate(int[], int[], int, double[])}, so that each
+     * row of the matrix of coefficients is read once for the whole batch. The
+     * evaluator state is left untouched.
+     */
+    @Override
+    public void evaluateBatch(List<? extends Solution<Integer>> sols) {
+
+        int count = sols.size();
+        int total = 0;
+        for (Solution<Integer> sol : sols) {
+            total += sol.size();
+        }
+        ensureBatch(count, total);
+
+        int k = 0;
+        for (int s = 0; s < count; s++) {
+            int start = k;
+            for (Integer elem : sols.get(s)) {
+                batchSupports[k++] = elem;
+            }
+            Arrays.sort(batchSupports, start, k);
 
-            for (int j = 0; j < size; j++) {
-                aux += variables[j] * A[i][j];
+            int end = start;
+            for (int a = start; a < k; a++) {
+                if (end == start || batchSupports[a] != batchSupports[end - 1]) {
+                    batchSupports[end++] = batchSupports[a];
+                }
             }
+            batchStarts[s] = start;
+            k = end;
+        }
+        batchStarts[count] = k;
+
+        A.evaluate(batchSupports, batchStarts, count, batchValues);
 
-            vecAux[i] = aux;
-            sum += aux * variables[i];
-            aux = (double) 0;
+        for (int s = 0; s < count; s++) {
+            sols.get(s).cost = batchValues[s];
         }
+    }
 
-        return sum;
+    /**
+     * {@inheritDoc} The selected variables are read off the words, in
+     * increasing order, and evaluated as in
+     * {@link #evaluateSupportQBF(Solution)}, without changing the evaluator
+     * state.
+     */
+    @Override
+    public double evaluateBits(long[] bits) {
+
+        int count = unpack(bits, selected, 0);
+        return A.evaluate(selected, count);
+    }
+
+    /**
+     * {@inheritDoc} The vectors are unpacked into supports and evaluated
+     * together as in {@link #evaluateBatch(List)}.
+     */
+    @Override
+    public void evaluateBitsBatch(long[][] bits, int count, double[] values) {
+
+        int total = 0;
+        for (int s = 0; s < count; s++) {
+            for (int w = 0; w < (size + 63) >>> 6; w++) {
+                total += Long.bitCount(bits[s][w]);
+            }
+        }
+        ensureBatch(count, total);
+
+        int k = 0;
+        for (int s = 0; s < count; s++) {
+            batchStarts[s] = k;
+            k = unpack(bits[s], batchSupports, k);
+        }
+        batchStarts[count] = k;
+
+        A.evaluate(batchSupports, batchStarts, count, values);
+    }
+
+    /**
+     * {@inheritDoc} Flipping the d differing variables t one after the other,
+     * each flip changes the QBF by its contribution to the base assignment,
+     * corrected by the pairs it forms with the variables flipped before it:
+     *
+     * f(y) = f(x) + \sum_t s_t (c_t(x) + \sum_{u &lt; t} s_u (a_{ut} + a_{tu}))
+     *
+     * with s_t = +1 (-1) if t enters (leaves). This costs O(d.n), and is used
+     * when cheaper than the O(k^2) of {@link #evaluateBits(long[])} for k
+     * selected variables.
+     */
+    @Override
+    public Double evaluateBitsFrom(long[] bits, long[] base, double baseValue) {
+
+        int words = (size + 63) >>> 6;
+        int d = 0;
+        int k = 0;
+        for (int w = 0; w < words; w++) {
+            d += Long.bitCount(bits[w] ^ base[w]);
+            k += Long.bitCount(bits[w]);
+        }
+        if ((long) d * size >= (long) k * k / 2) {
+            return null;
+        }
+
+        for (int j = 0; j < size; j++) {
+            baseVariables[j] = (base[j >>> 6] & (1L << j)) != 0;
+        }
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long word = bits[w] ^ base[w];
+            while (word != 0) {
+                selected[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+
+        double delta = 0.0;
+        for (int a = 0; a < count; a++) {
+            int t = selected[a];
+            double sign = baseVariables[t] ? -1.0 : 1.0;
+            double aux = A.contribution(t, baseVariables);
+            for (int b = 0; b < a; b++) {
+                int u = selected[b];
+                aux += (baseVariables[u] ? -1.0 : 1.0) * A.pair(u, t);
+            }
+            delta += sign * aux;
+        }
+
+        return baseValue + delta;
+    }
+
+    /**
+     * Writes the indices of the variables set in a packed vector, in
+     * increasing order.
+     *
+     * @param bits the packed vector.
+     * @param support receives the indices.
+     * @param from position of support where the first index is written.
+     * @return the position of support past the last index written.
+     */
+    private int unpack(long[] bits, int[] support, int from) {
+
+        int k = from;
+        for (int w = 0; w < (size + 63) >>> 6; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                support[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+
+        return k;
+    }
+
+    /**
+     * Grows the batch buffers to hold a batch of count solutions with total
+     * selected variables in all.
+     */
+    private void ensureBatch(int count, int total) {
+        if (batchSupports.length < total) {
+            batchSupports = new int[total];
+        }
+        if (batchValues.length < count) {
+            batchStarts = new int[count + 1];
+            batchValues = new double[count];
+        }
+    }
+
+    /**
+     * Evaluates a QBF visiting only the pairs of elements of a solution, in
+     * O(k^2) for a solution with k elements, without changing the evaluator
+     * state.
+     *
+     * @param sol the solution under evaluation, with at most {@link #size}
+     * elements.
+     * @return The value of the QBF.
+     */
+    public Double evaluateSupportQBF(Solution<Integer> sol) {
+
+        int k = 0;
+        for (Integer elem : sol) {
+            selected[k++] = elem;
+        }
+        Arrays.sort(selected, 0, k);
+
+        int count = 0;
+        for (int a = 0; a < k; a++) {
+            if (count == 0 || selected[a] != selected[count - 1]) {
+                selected[count++] = selected[a];
+            }
+        }
+
+        return A.evaluate(selected, count);
     }
 
     /*
@@ -131,7 +612,7 @@ public class QBF implements Evaluator<Integer> {
     @Override
     public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
 
-        setVariables(sol);
+        prepare(sol);
         return evaluateInsertionQBF(elem);
 
     }
@@ -146,7 +627,7 @@ public class QBF implements Evaluator<Integer> {
      */
     public Double evaluateInsertionQBF(int i) {
 
-        if (variables[i] == 1) {
+        if (variables[i]) {
             return 0.0;
         }
 
@@ -162,7 +643,7 @@ public class QBF implements Evaluator<Integer> {
     @Override
     public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
 
-        setVariables(sol);
+        prepare(sol);
         return evaluateRemovalQBF(elem);
 
     }
@@ -177,7 +658,7 @@ public class QBF implements Evaluator<Integer> {
      */
     public Double evaluateRemovalQBF(int i) {
 
-        if (variables[i] == 0) {
+        if (!variables[i]) {
             return 0.0;
         }
 
@@ -194,7 +675,7 @@ public class QBF implements Evaluator<Integer> {
     @Override
     public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
 
-        setVariables(sol);
+        prepare(sol);
         return evaluateExchangeQBF(elemIn, elemOut);
 
     }
@@ -212,30 +693,95 @@ public class QBF implements Evaluator<Integer> {
      */
     public Double evaluateExchangeQBF(int in, int out) {
 
-        Double sum = 0.0;
+        double sum = 0.0;
 
         if (in == out) {
             return 0.0;
         }
-        if (variables[in] == 1) {
+        if (variables[in]) {
             return evaluateRemovalQBF(out);
         }
-        if (variables[out] == 0) {
+        if (!variables[out]) {
             return evaluateInsertionQBF(in);
         }
 
         sum += evaluateContributionQBF(in);
         sum -= evaluateContributionQBF(out);
-        sum -= (A[in][out] + A[out][in]);
+        sum -= A.pair(in, out);
 
         return sum;
     }
 
+    /**
+     * {@inheritDoc} In the incremental mode the move is applied to the bound
+     * state in O(n) instead of re-evaluating the whole solution.
+     */
+    @Override
+    public Double applyInsertion(Integer elem, Solution<Integer> sol) {
+
+        if (!incremental) {
+            return Evaluator.super.applyInsertion(elem, sol);
+        }
+
+        bind(sol);
+        sol.add(elem);
+        if (!variables[elem]) {
+            flip(elem);
+        }
+        boundModCount = sol.getModCount();
+
+        return sol.cost = evaluateQBF();
+    }
+
+    /**
+     * {@inheritDoc} In the incremental mode the move is applied to the bound
+     * state in O(n) instead of re-evaluating the whole solution.
+     */
+    @Override
+    public Double applyRemoval(Integer elem, Solution<Integer> sol) {
+
+        if (!incremental) {
+            return Evaluator.super.applyRemoval(elem, sol);
+        }
+
+        bind(sol);
+        if (sol.remove(elem) && variables[elem]) {
+            flip(elem);
+        }
+        boundModCount = sol.getModCount();
+
+        return sol.cost = evaluateQBF();
+    }
+
+    /**
+     * {@inheritDoc} In the incremental mode the move is applied to the bound
+     * state in O(n) instead of re-evaluating the whole solution.
+     */
+    @Override
+    public Double applyExchange(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
+
+        if (!incremental) {
+            return Evaluator.super.applyExchange(elemIn, elemOut, sol);
+        }
+
+        bind(sol);
+        if (sol.remove(elemOut) && variables[elemOut]) {
+            flip(elemOut);
+        }
+        sol.add(elemIn);
+        if (!variables[elemIn]) {
+            flip(elemIn);
+        }
+        boundModCount = sol.getModCount();
+
+        return sol.cost = evaluateQBF();
+    }
+
     /**
      * Determines the contribution to the QBF objective function from the
      * insertion of an element. This method is faster than evaluating the whole
-     * solution, since it uses the fact that only one line and one column from
-     * matrix A needs to be evaluated when inserting a new element into the
+     * solution, since it uses the fact that only the pair coefficients of one
+     * variable need to be evaluated when inserting a new element into the
      * solution. This method is different from
      * {@link #evaluateInsertionQBF(int)}, since it disregards the fact that the
      * element might already be in the solution.
@@ -246,60 +792,147 @@ public class QBF implements Evaluator<Integer> {
      */
     protected Double evaluateContributionQBF(int i) {
 
-        Double sum = 0.0;
-
-        for (int j = 0; j < size; j++) {
-            if (i != j) {
-                sum += variables[j] * (A[i][j] + A[j][i]);
-            }
+        if (boundSol != null) {
+            return gain[i];
         }
-        sum += A[i][i];
 
-        return sum;
+        return A.contribution(i, variables);
+    }
+
+    /**
+     * Gives the coefficient a_{ij} of matrix {@link #A}, as read from the
+     * input. Only the upper triangle (j &ge; i) holds nonzero values.
+     *
+     * @param i row of the coefficient.
+     * @param j column of the coefficient.
+     * @return the coefficient a_{ij}.
+     */
+    public double getCoefficient(int i, int j) {
+        return A.get(i, j);
+    }
+
+    /**
+     * Gives the matrix of coefficients {@link #A}, which may be shared with
+     * other QBFs (see {@link #QBF(QBFMatrix)}).
+     *
+     * @return the matrix of coefficients.
+     */
+    public QBFMatrix getMatrix() {
+        return A;
     }
 
     /**
      * Responsible for setting the QBF function parameters by reading the
      * necessary input from an external file. this method reads the domain's
-     * dimension and matrix {@link #A}.
+     * dimension and matrix {@link #A}. Both text instances and the binary
+     * instances of {@link BinaryInstance} are accepted.
      *
      * @param filename Name of the file containing the input for setting the
      * black box function.
+     * @param storage The storage mode of matrix A.
      * @return The dimension of the domain.
      * @throws IOException Necessary for I/O operations.
      */
-    protected Integer readInput(String filename) throws IOException {
+    protected Integer readInput(String filename, int storage) throws IOException {
 
-        Reader fileInst = new BufferedReader(new FileReader(filename));
-        StreamTokenizer stok = new StreamTokenizer(fileInst);
+        if (BinaryInstance.isBinary(filename)) {
+            A = BinaryInstance.load(filename, storage);
+            return A.size;
+        }
 
-        stok.nextToken();
-        Integer _size = (int) stok.nval;
-        A = new Double[_size][_size];
+        Integer _size;
+        short[] integral;
+        double[] upper;
+        try (InstanceTokenizer tok = new InstanceTokenizer(filename)) {
+
+            _size = (int) tok.nextNumber();
+            long length = (long) _size * (_size + 1) / 2;
+            if (_size < 0 || _size > PackedQBFMatrix.MAX_SIZE) {
+                throw new IOException(filename + " has dimension " + _size + ", but a matrix read into memory holds at most "
+                        + PackedQBFMatrix.MAX_SIZE + " (packed storage); larger instances must be given as symmetric"
+                        + " binary instances (see BinaryInstance), which MappedQBFMatrix maps in place");
+            }
 
-        for (int i = 0; i < _size; i++) {
-            for (int j = i; j < _size; j++) {
-                stok.nextToken();
-                A[i][j] = stok.nval;
-                //A[j][i] = A[i][j];
-                if (j > i) {
-                    A[j][i] = 0.0;
+            /*
+             * Coefficients are kept as shorts while they are integral and fit
+             * in one, so that the full double triangle is only allocated when
+             * it is actually needed.
+             */
+            integral = (storage == INTEGRAL) ? new short[(int) length] : null;
+            upper = (integral == null) ? new double[(int) length] : null;
+
+            for (int k = 0; k < length; k++) {
+                double val = tok.nextNumber();
+                if (integral != null && (val != Math.rint(val) || val < Short.MIN_VALUE || val > Short.MAX_VALUE)) {
+                    upper = new double[(int) length];
+                    for (int t = 0; t < k; t++) {
+                        upper[t] = integral[t];
+                    }
+                    integral = null;
+                }
+                if (integral != null) {
+                    integral[k] = (short) val;
+                } else {
+                    upper[k] = val;
                 }
             }
         }
 
+        A = buildMatrix(_size, upper, integral, storage);
+
         return _size;
 
     }
 
+    /**
+     * Builds the matrix of coefficients for a storage mode from the upper
+     * triangle of A packed row by row. Exactly one of the arrays must be
+     * non-null.
+     *
+     * @param size dimension of the matrix.
+     * @param upper the upper triangle of A, or null.
+     * @param integral the upper triangle of an integral A, or null.
+     * @param storage the storage mode of matrix A.
+     * @return the matrix of coefficients.
+     */
+    static QBFMatrix buildMatrix(int size, double[] upper, short[] integral, int storage) {
+
+        if (storage == INTEGRAL && SparseQBFMatrix.density(size, upper, integral) < SPARSE_DENSITY) {
+            storage = SPARSE;
+        }
+
+        // past this size an n x n array is too long, but the triangle is not
+        if ((storage == SYMMETRIC || storage == INTEGRAL) && size > SymmetricQBFMatrix.MAX_SIZE) {
+            storage = PACKED;
+        }
+
+        if (integral != null && storage != INTEGRAL && storage != SPARSE) {
+            upper = new double[integral.length];
+            for (int k = 0; k < integral.length; k++) {
+                upper[k] = integral[k];
+            }
+            integral = null;
+        }
+
+        if (storage == SPARSE) {
+            return (integral != null) ? new SparseQBFMatrix(size, integral) : new SparseQBFMatrix(size, upper);
+        } else if (integral != null) {
+            return new IntegralQBFMatrix(size, integral);
+        } else if (storage == PACKED) {
+            return new PackedQBFMatrix(size, upper);
+        }
+        return new SymmetricQBFMatrix(size, upper);
+
+    }
+
     /**
      * Reserving the required memory for storing the values of the domain
      * variables.
      *
      * @return a pointer to the array of domain variables.
      */
-    protected Double[] allocateVariables() {
-        Double[] _variables = new Double[size];
+    protected boolean[] allocateVariables() {
+        boolean[] _variables = new boolean[size];
         return _variables;
     }
 
@@ -307,7 +940,8 @@ public class QBF implements Evaluator<Integer> {
      * Reset the domain variables to their default values.
      */
     public void resetVariables() {
-        Arrays.fill(variables, 0.0);
+        Arrays.fill(variables, false);
+        boundSol = null;
     }
 
     /**
@@ -317,7 +951,7 @@ public class QBF implements Evaluator<Integer> {
 
         for (int i = 0; i < size; i++) {
             for (int j = i; j < size; j++) {
-                System.out.print(A[i][j] + " ");
+                System.out.print(A.get(i, j) + " ");
             }
             System.out.println();
         }
@@ -340,11 +974,7 @@ public class QBF implements Evaluator<Integer> {
         // one.
         for (int i = 0; i < 10000; i++) {
             for (int j = 0; j < qbf.size; j++) {
-                if (Math.random() < 0.5) {
-                    qbf.variables[j] = 0.0;
-                } else {
-                    qbf.variables[j] = 1.0;
-                }
+                qbf.variables[j] = Math.random() >= 0.5;
             }
             System.out.println("x = " + Arrays.toString(qbf.variables));
             Double eval = qbf.evaluateQBF();
@@ -357,14 +987,14 @@ public class QBF implements Evaluator<Integer> {
 
         // evaluates the zero array.
         for (int j = 0; j < qbf.size; j++) {
-            qbf.variables[j] = 0.0;
+            qbf.variables[j] = false;
         }
         System.out.println("x = " + Arrays.toString(qbf.variables));
         System.out.println("f(x) = " + qbf.evaluateQBF());
 
         // evaluates the all-ones array.
         for (int j = 0; j < qbf.size; j++) {
-            qbf.variables[j] = 1.0;
+            qbf.variables[j] = true;
         }
         System.out.println("x = " + Arrays.toString(qbf.variables));
         System.out.println("f(x) = " + qbf.evaluateQBF());
@@ -0,0 +1,247 @@
+package problems.qbf;
+
+import java.util.Arrays;
+
+/**
+ * Storage of the matrix A of coefficients of a QBF f(x) = x'.A.x . The input
+ * instances only define the upper triangle of A, so a QBF is fully described
+ * by the diagonal a_{ii} and by the pair coefficients a_{ij} + a_{ji}. Each
+ * implementation lays these values out in memory in its own way and provides
+ * the kernels used by {@link QBF} on top of that layout. A matrix is immutable
+ * once built.
+ */
+public abstract class QBFMatrix {
+
+    /**
+     * Number of columns processed together by
+     * {@link #evaluate(int[], int[], int, double[])}.
+     */
+    protected static final int TILE_COLUMNS = 4096;
+
+    /**
+     * Number of bytes of coefficients above which a batch is evaluated by
+     * sharing the rows of the matrix among its assignments. Smaller matrices
+     * stay in cache anyway, and their assignments are evaluated one at a time
+     * by {@link #evaluate(int[], int)}, which has less bookkeeping.
+     */
+    protected static final long BATCH_FOOTPRINT = 8L << 20;
+
+    /**
+     * Dimension of the matrix.
+     */
+    public final int size;
+
+    /**
+     * Constructor for the QBFMatrix class.
+     *
+     * @param size dimension of the matrix.
+     */
+    protected QBFMatrix(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Gives the coefficient a_{ij}, as read from the input. Only the upper
+     * triangle (j &ge; i) holds nonzero values.
+     *
+     * @param i row of the coefficient.
+     * @param j column of the coefficient.
+     * @return the coefficient a_{ij}.
+     */
+    public abstract double get(int i, int j);
+
+    /**
+     * Gives the diagonal coefficient a_{ii}.
+     *
+     * @param i index of the variable.
+     * @return the coefficient a_{ii}.
+     */
+    public abstract double diagonal(int i);
+
+    /**
+     * Gives the coefficient of the product x_i.x_j in the QBF, i.e., a_{ij} +
+     * a_{ji}, for i != j.
+     *
+     * @param i index of the first variable.
+     * @param j index of the second variable.
+     * @return the coefficient a_{ij} + a_{ji}.
+     */
+    public abstract double pair(int i, int j);
+
+    /**
+     * Computes the contribution of variable i to the QBF for an assignment x,
+     * i.e., a_{ii} + \sum_{j != i} x_j (a_{ij} + a_{ji}).
+     *
+     * @param i index of the variable.
+     * @param x the assignment of the variables.
+     * @return the contribution of variable i.
+     */
+    public abstract double contribution(int i, boolean[] x);
+
+    /**
+     * Adds the pair coefficients of variable i, scaled by sign, to a gain
+     * vector: gain[j] += sign * (a_{ij} + a_{ji}) for every j != i.
+     *
+     * @param i index of the variable being flipped.
+     * @param sign +1 when i enters the assignment, -1 when it leaves it.
+     * @param gain the gain vector being updated.
+     */
+    public abstract void addPairs(int i, double sign, double[] gain);
+
+    /**
+     * Adds the pair coefficients of several variables, scaled by sign, to a
+     * gain vector. This is equivalent to calling
+     * {@link #addPairs(int, double, double[])} for each of them, but lets an
+     * implementation fuse the updates so that the gain vector is traversed
+     * fewer times.
+     *
+     * @param rows indices of the variables being flipped.
+     * @param count number of valid entries in rows.
+     * @param sign +1 when the variables enter the assignment, -1 when they
+     * leave it.
+     * @param gain the gain vector being updated.
+     */
+    public void addPairs(int[] rows, int count, double sign, double[] gain) {
+        for (int t = 0; t < count; t++) {
+            addPairs(rows[t], sign, gain);
+        }
+    }
+
+    /**
+     * Evaluates the QBF f(x) = x'.A.x for an assignment x.
+     *
+     * @param x the assignment of the variables.
+     * @return the value of the QBF.
+     */
+    public abstract double evaluate(boolean[] x);
+
+    /**
+     * Evaluates the QBF f(x) = x'.A.x for the assignment whose selected
+     * variables are given, visiting only the pairs of selected variables. This
+     * costs O(k^2) for k selected variables, against the O(n.k) of
+     * {@link #evaluate(boolean[])}.
+     *
+     * @param support indices of the selected variables, in increasing order.
+     * @param count number of valid entries in support.
+     * @return the value of the QBF.
+     */
+    public double evaluate(int[] support, int count) {
+
+        double sum = 0.0;
+
+        for (int a = 0; a < count; a++) {
+            int i = support[a];
+            double aux = diagonal(i);
+            for (int b = a + 1; b < count; b++) {
+                aux += pair(i, support[b]);
+            }
+            sum += aux;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Evaluates the QBF for a batch of assignments at once. The assignments
+     * are given by their supports, stored one after the other: the selected
+     * variables of assignment s are supports[starts[s]] ...
+     * supports[starts[s + 1] - 1], in increasing order. The matrix is
+     * traversed row by row in tiles of {@link #TILE_COLUMNS} columns, and each
+     * row of a tile is read once for the whole batch, while it is still in
+     * cache, instead of once per assignment.
+     *
+     * @param supports the supports of the assignments.
+     * @param starts position in supports where each assignment starts, with
+     * count + 1 entries.
+     * @param count number of assignments.
+     * @param values receives the value of the QBF for each assignment.
+     */
+    public void evaluate(int[] supports, int[] starts, int count, double[] values) {
+
+        int total = starts[count];
+
+        if (footprint() <= BATCH_FOOTPRINT) {
+            int[] support = new int[size];
+            for (int s = 0; s < count; s++) {
+                int k = starts[s + 1] - starts[s];
+                System.arraycopy(supports, starts[s], support, 0, k);
+                values[s] = evaluate(support, k);
+            }
+            return;
+        }
+
+        /* The occurrences of each variable, as (assignment, position) pairs. */
+        int[] head = new int[size + 1];
+        int[] owner = new int[total];
+        int[] position = new int[total];
+        for (int b = 0; b < total; b++) {
+            head[supports[b] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            head[i + 1] += head[i];
+        }
+        int[] next = Arrays.copyOf(head, size);
+        for (int s = 0; s < count; s++) {
+            for (int b = starts[s]; b < starts[s + 1]; b++) {
+                int e = next[supports[b]]++;
+                owner[e] = s;
+                position[e] = b;
+            }
+        }
+
+        Arrays.fill(values, 0, count, 0.0);
+        int[] tileStart = new int[count];
+        int[] tileEnd = Arrays.copyOf(starts, count);
+
+        for (int c0 = 0; c0 < size; c0 += TILE_COLUMNS) {
+            int c1 = Math.min(size, c0 + TILE_COLUMNS);
+
+            for (int s = 0; s < count; s++) {
+                tileStart[s] = tileEnd[s];
+                while (tileEnd[s] < starts[s + 1] && supports[tileEnd[s]] < c1) {
+                    tileEnd[s]++;
+                }
+            }
+
+            for (int i = 0; i < c1; i++) {
+                for (int e = head[i]; e < head[i + 1]; e++) {
+                    int s = owner[e];
+                    double aux = sumPairs(i, supports, Math.max(position[e] + 1, tileStart[s]), tileEnd[s]);
+                    values[s] += (i >= c0) ? diagonal(i) + aux : aux;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives the number of bytes of coefficients read by a full traversal of
+     * the matrix.
+     *
+     * @return the size of the stored coefficients, in bytes.
+     */
+    protected long footprint() {
+        return 8L * size * size;
+    }
+
+    /**
+     * Sums the pair coefficients a_{ij} + a_{ji} of variable i over the
+     * variables j = support[from] ... support[to - 1].
+     *
+     * @param i index of the variable.
+     * @param support indices of the other variables, in increasing order.
+     * @param from first position of support considered.
+     * @param to position past the last one considered.
+     * @return the sum of the pair coefficients.
+     */
+    protected double sumPairs(int i, int[] support, int from, int to) {
+
+        double sum = 0.0;
+
+        for (int b = from; b < to; b++) {
+            sum += pair(i, support[b]);
+        }
+
+        return sum;
+    }
+
+}
@@ -1,6 +1,8 @@
 package problems.qbf;
 
 import java.io.IOException;
+import java.util.List;
+import solutions.Solution;
 
 /**
  * Class representing the inverse of the Quadractic Binary Function
@@ -22,6 +24,40 @@ public class QBF_Inverse extends QBF {
         super(filename);
     }
 
+    /**
+     * Constructor for the QBF_Inverse class, choosing how the matrix of
+     * coefficients is laid out in memory.
+     *
+     * @param filename Name of the file for which the objective function
+     * parameters should be read.
+     * @param storage The storage mode of the matrix of coefficients.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public QBF_Inverse(String filename, int storage) throws IOException {
+        super(filename, storage);
+    }
+
+    /**
+     * Constructor for the QBF_Inverse class over an already loaded matrix of
+     * coefficients.
+     *
+     * @param A The matrix of coefficients, which may be shared with other
+     * QBFs.
+     */
+    public QBF_Inverse(QBFMatrix A) {
+        super(A);
+    }
+
+    /* (non-Javadoc)
+	 * @see problems.qbf.QBF#newContext()
+     */
+    @Override
+    public QBF_Inverse newContext() {
+        QBF_Inverse context = new QBF_Inverse(A);
+        context.setIncremental(incremental);
+        return context;
+    }
+
 
     /* (non-Javadoc)
 	 * @see problems.qbf.QBF#evaluate()
@@ -31,6 +67,53 @@ public class QBF_Inverse extends QBF {
         return -super.evaluateQBF();
     }
 
+    /* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateSupportQBF(solutions.Solution)
+     */
+    @Override
+    public Double evaluateSupportQBF(Solution<Integer> sol) {
+        return -super.evaluateSupportQBF(sol);
+    }
+
+    /* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBatch(java.util.List)
+     */
+    @Override
+    public void evaluateBatch(List<? extends Solution<Integer>> sols) {
+        super.evaluateBatch(sols);
+        for (Solution<Integer> sol : sols) {
+            sol.cost = -sol.cost;
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBits(long[])
+     */
+    @Override
+    public double evaluateBits(long[] bits) {
+        return -super.evaluateBits(bits);
+    }
+
+    /* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBitsBatch(long[][], int, double[])
+     */
+    @Override
+    public void evaluateBitsBatch(long[][] bits, int count, double[] values) {
+        super.evaluateBitsBatch(bits, count, values);
+        for (int s = 0; s < count; s++) {
+            values[s] = -values[s];
+        }
+    }
+
+    /* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateBitsFrom(long[], long[], double)
+     */
+    @Override
+    public Double evaluateBitsFrom(long[] bits, long[] base, double baseValue) {
+        Double value = super.evaluateBitsFrom(bits, base, -baseValue);
+        return (value == null) ? null : -value;
+    }
+
     /* (non-Javadoc)
 	 * @see problems.qbf.QBF#evaluateInsertion(int)
      */
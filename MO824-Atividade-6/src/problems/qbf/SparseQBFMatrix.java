@@ -0,0 +1,257 @@
+package problems.qbf;
+
+import java.util.Arrays;
+
+/**
+ * Matrix storage for sparse instances. The symmetrized matrix S = A + A' is
+ * kept in compressed sparse rows (CSR): the nonzero pair coefficients of row i
+ * are vals[rowStart[i]] ... vals[rowStart[i + 1] - 1], at the columns given by
+ * cols, in increasing order. The diagonal of A is kept apart. Contributions
+ * and gain updates then cost O(deg(i)) instead of O(n).
+ */
+public class SparseQBFMatrix extends QBFMatrix {
+
+    /**
+     * Position in {@link #cols} and {@link #vals} where each row starts; row i
+     * ends where row i + 1 starts.
+     */
+    protected final int[] rowStart;
+
+    /**
+     * Column of each nonzero pair coefficient.
+     */
+    protected final int[] cols;
+
+    /**
+     * Value of each nonzero pair coefficient, a_{ij} + a_{ji}.
+     */
+    protected final double[] vals;
+
+    /**
+     * The diagonal of A.
+     */
+    protected final double[] diag;
+
+    /**
+     * Builds the sparse matrix from the upper triangle of A.
+     *
+     * @param size dimension of the matrix.
+     * @param upper the upper triangle of A packed row by row, i.e., a_{00} ...
+     * a_{0,n-1}, a_{11} ... a_{1,n-1}, ..., a_{n-1,n-1}.
+     */
+    public SparseQBFMatrix(int size, double[] upper) {
+        this(size, upper, null);
+    }
+
+    /**
+     * Builds the sparse matrix from the upper triangle of an integral A.
+     *
+     * @param size dimension of the matrix.
+     * @param upper the upper triangle of A packed row by row, as in
+     * {@link #SparseQBFMatrix(int, double[])}.
+     */
+    public SparseQBFMatrix(int size, short[] upper) {
+        this(size, null, upper);
+    }
+
+    private SparseQBFMatrix(int size, double[] upper, short[] integral) {
+        super(size);
+        diag = new double[size];
+        rowStart = new int[size + 1];
+
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            diag[i] = value(upper, integral, k++);
+            for (int j = i + 1; j < size; j++, k++) {
+                if (value(upper, integral, k) != 0.0) {
+                    rowStart[i + 1]++;
+                    rowStart[j + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            rowStart[i + 1] += rowStart[i];
+        }
+
+        cols = new int[rowStart[size]];
+        vals = new double[rowStart[size]];
+
+        /*
+         * Pairs are visited by increasing row and then column, which leaves the
+         * columns of every row already sorted.
+         */
+        int[] next = Arrays.copyOf(rowStart, size);
+        k = 0;
+        for (int i = 0; i < size; i++) {
+            k++;
+            for (int j = i + 1; j < size; j++, k++) {
+                double val = value(upper, integral, k);
+                if (val != 0.0) {
+                    cols[next[i]] = j;
+                    vals[next[i]++] = val;
+                    cols[next[j]] = i;
+                    vals[next[j]++] = val;
+                }
+            }
+        }
+    }
+
+    private static double value(double[] upper, short[] integral, int k) {
+        return (upper != null) ? upper[k] : integral[k];
+    }
+
+    /**
+     * Computes the fraction of nonzero coefficients above the diagonal of a
+     * packed upper triangle. Exactly one of the arrays must be non-null.
+     *
+     * @param size dimension of the matrix.
+     * @param upper the upper triangle of A, or null.
+     * @param integral the upper triangle of an integral A, or null.
+     * @return the density of the off-diagonal part of A, within [0, 1].
+     */
+    public static double density(int size, double[] upper, short[] integral) {
+
+        if (size < 2) {
+            return 1.0;
+        }
+
+        long nonZeros = 0;
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            k++;
+            for (int j = i + 1; j < size; j++, k++) {
+                if (value(upper, integral, k) != 0.0) {
+                    nonZeros++;
+                }
+            }
+        }
+
+        return nonZeros / ((double) size * (size - 1) / 2);
+    }
+
+    @Override
+    public double get(int i, int j) {
+        if (i == j) {
+            return diag[i];
+        }
+        return (j > i) ? pair(i, j) : 0.0;
+    }
+
+    @Override
+    public double diagonal(int i) {
+        return diag[i];
+    }
+
+    @Override
+    public double pair(int i, int j) {
+        int pos = Arrays.binarySearch(cols, rowStart[i], rowStart[i + 1], j);
+        return (pos >= 0) ? vals[pos] : 0.0;
+    }
+
+    @Override
+    public double contribution(int i, boolean[] x) {
+
+        double sum = diag[i];
+
+        for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+            if (x[cols[p]]) {
+                sum += vals[p];
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void addPairs(int i, double sign, double[] gain) {
+
+        for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+            gain[cols[p]] += sign * vals[p];
+        }
+    }
+
+    @Override
+    public double evaluate(boolean[] x) {
+
+        double sum = 0.0;
+
+        for (int i = 0; i < size; i++) {
+            if (!x[i]) {
+                continue;
+            }
+
+            double aux = diag[i];
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                if (cols[p] > i && x[cols[p]]) {
+                    aux += vals[p];
+                }
+            }
+
+            sum += aux;
+        }
+
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc} Each row is merged with the rest of the support, so this
+     * costs O(k.(k + d)) for rows with d nonzero coefficients.
+     */
+    @Override
+    public double evaluate(int[] support, int count) {
+
+        double sum = 0.0;
+
+        for (int a = 0; a < count; a++) {
+            int i = support[a];
+            double aux = diag[i];
+            int p = rowStart[i];
+            int end = rowStart[i + 1];
+            int b = a + 1;
+            while (p < end && b < count) {
+                if (cols[p] < support[b]) {
+                    p++;
+                } else if (cols[p] > support[b]) {
+                    b++;
+                } else {
+                    aux += vals[p++];
+                    b++;
+                }
+            }
+            sum += aux;
+        }
+
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc} Row i is merged with the given part of the support.
+     */
+    @Override
+    protected double sumPairs(int i, int[] support, int from, int to) {
+
+        double sum = 0.0;
+        int p = rowStart[i];
+        int end = rowStart[i + 1];
+        int b = from;
+
+        while (p < end && b < to) {
+            if (cols[p] < support[b]) {
+                p++;
+            } else if (cols[p] > support[b]) {
+                b++;
+            } else {
+                sum += vals[p++];
+                b++;
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    protected long footprint() {
+        return 12L * vals.length + 8L * size;
+    }
+
+}
@@ -5,9 +5,7 @@
  */
 package problems.qbf.solvers;
 
-import metaheuristics.ga.Chromosome;
-import problems.Evaluator;
-import solutions.Solution;
+import metaheuristics.ga.BitChromosome;
 
 /**
  *
@@ -15,21 +13,13 @@ import solutions.Solution;
  * @author Jônatas Trabuco Belotti [jonatas.t.belotti@hotmail.com]
  * @author Matheus Diógenes Andrade
  */
-public class ChromossomeQBF extends Chromosome<Integer> {
+public class ChromossomeQBF extends BitChromosome {
 
-    @Override
-    public void calcFitness(Evaluator<Integer> objEval) {
-        Solution<Integer> solution = new Solution<Integer>();
-        solution.cost = 0.0;
-
-        for (int locus = 0; locus < size(); locus++) {
-            if (get(locus) == 1) {
-                solution.add(new Integer(locus));
-            }
-        }
+    public ChromossomeQBF() {
+    }
 
-        objEval.evaluate(solution);
-        this.fitnessVal = solution.cost;
+    public ChromossomeQBF(int size) {
+        super(size);
     }
 
 }
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.BitChromosome;
 import metaheuristics.ga.Chromosome;
 import problems.qbf.QBF;
 import solutions.Solution;
@@ -27,9 +28,22 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
      * @param filename Name of the file for which the objective function
      * parameters should be read.
      * @throws IOException Necessary for I/O operations.
+     * @throws IllegalArgumentException if the mutation type is the
+     * {@link #DYNAMIC_MUTATION}, which this GA does not have.
      */
     public GA_QBF(Integer tempoExecucao, List<Integer> alvos, Integer popSize, Double mutationRate, String filename, int crossoverType, int mutationType) throws IOException {
-        super(new QBF(filename), tempoExecucao, alvos, popSize, mutationRate, crossoverType, mutationType);
+        super(readQBF(filename, mutationType), tempoExecucao, alvos, popSize, mutationRate, crossoverType, mutationType);
+    }
+
+    /**
+     * Reads the QBF of the GA, once the mutation type is known to be valid,
+     * so that a bad argument does not cost the load of the instance.
+     */
+    private static QBF readQBF(String filename, int mutationType) throws IOException {
+        if (mutationType == DYNAMIC_MUTATION) {
+            throw new IllegalArgumentException("GA_QBF has no dynamic mutation");
+        }
+        return new QBF(filename);
     }
 
     /**
@@ -73,8 +87,41 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
     @Override
     protected void mutateGene(Chromosome<Integer> chromosome, Integer locus) {
 
-        chromosome.set(locus, 1 - chromosome.get(locus));
+        ((BitChromosome) chromosome).flip(locus);
+
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The offsprings start as copies of their parents, which then exchange the
+     * genes between the crosspoints a word at a time.
+     */
+    @Override
+    protected Population defaultCrossover(Population parents) {
+        Population offsprings = newPopulation();
+        Population bases = newPopulation();
+
+        for (int i = 0; i < popSize; i = i + 2) {
+
+            BitChromosome offspring1 = (BitChromosome) copyChromosome(parents.get(i));
+            BitChromosome offspring2 = (BitChromosome) copyChromosome(parents.get(i + 1));
 
+            int crosspoint1 = rng.nextInt(chromosomeSize + 1);
+            int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
+
+            offspring1.swapRange(offspring2, crosspoint1, crosspoint2);
+
+            offsprings.add(offspring1);
+            offsprings.add(offspring2);
+            bases.add(parents.get(i));
+            bases.add(parents.get(i + 1));
+
+        }
+
+        calcFitness(offsprings, bases);
+
+        return offsprings;
     }
 
     /*
@@ -85,13 +132,7 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
      */
     @Override
     protected Solution<Integer> decode(Chromosome<Integer> chromosome) {
-        Solution<Integer> solution = createEmptySol();
-
-        for (int locus = 0; locus < chromosome.size(); locus++) {
-            if (chromosome.get(locus) == 1) {
-                solution.add(new Integer(locus));
-            }
-        }
+        Solution<Integer> solution = chromosome.toSolution();
 
         ObjFunction.evaluate(solution);
         return solution;
@@ -114,6 +155,17 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * This GA has no dynamic mutation, which its constructor rejects, so the
+     * probability is just the {@link #mutationRate}.
+     */
+    @Override
+    protected double mutationProbability() {
+        return mutationRate;
+    }
+
     /**
      * A main method used for testing the GA metaheuristic.
      *
@@ -8,6 +8,7 @@ import java.util.Random;
 
 import localSearch.LocalSearchOperation;
 import metaheuristics.grasp.AbstractGRASP;
+import problems.qbf.QBFMatrix;
 import problems.qbf.QBF_Inverse;
 import solutions.Solution;
 
@@ -41,6 +42,22 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
         this.firstImproving = firstImproving;
     }
 
+    /**
+     * Constructor for the GRASP_QBF class over an already loaded matrix of
+     * coefficients, which may be shared with other solvers.
+     *
+     * @param alpha The GRASP greediness-randomness parameter (within the range
+     * [0,1])
+     * @param firstImproving
+     * @param tempoExecucao
+     * @param matrix The matrix of coefficients of the QBF.
+     */
+    public GRASP_QBF(Double alpha, Boolean firstImproving, Integer tempoExecucao, List<Integer> alvos, QBFMatrix matrix) {
+        super(new QBF_Inverse(matrix), alpha, tempoExecucao, alvos);
+
+        this.firstImproving = firstImproving;
+    }
+
     /*
 	 * (non-Javadoc)
 	 * 
@@ -168,24 +185,20 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
             // Implement the best move, if it reduces the solution cost.
             if (minDeltaCost < -Double.MIN_VALUE && melhorVizinho != null) {
                 if (melhorVizinho.isInsertion()) {
-                    incumbentSol.add(melhorVizinho.getElement());
+                    ObjFunction.applyInsertion(melhorVizinho.getElement(), incumbentSol);
                     CL.remove(melhorVizinho.getElement());
                 }
 
                 if (melhorVizinho.isRemoval()) {
-                    incumbentSol.remove(melhorVizinho.getElement());
+                    ObjFunction.applyRemoval(melhorVizinho.getElement(), incumbentSol);
                     CL.add(melhorVizinho.getElement());
                 }
 
                 if (melhorVizinho.isExchange()) {
-                    incumbentSol.add(melhorVizinho.getInElement());
+                    ObjFunction.applyExchange(melhorVizinho.getInElement(), melhorVizinho.getOutElement(), incumbentSol);
                     CL.remove(melhorVizinho.getInElement());
-
-                    incumbentSol.remove(melhorVizinho.getOutElement());
                     CL.add(melhorVizinho.getOutElement());
                 }
-
-                ObjFunction.evaluate(incumbentSol);
             }
         } while (minDeltaCost < -Double.MIN_VALUE);
 
@@ -67,7 +67,7 @@ public class Gurobi_QBF {
         GRBQuadExpr obj = new GRBQuadExpr();
         for (int i = 0; i < problem.size; i++) {
             for (int j = i; j < problem.size; j++) {
-                obj.addTerm(problem.A[i][j], x[i], x[j]);
+                obj.addTerm(problem.getCoefficient(i, j), x[i], x[j]);
             }
         }
 
@@ -153,7 +153,7 @@ public class TS_QBF extends AbstractTS<Integer> {
         // Implement the best non-tabu move
         TL.poll();
         if (bestCandOut != null) {
-            incumbentSol.remove(bestCandOut);
+            ObjFunction.applyRemoval(bestCandOut, incumbentSol);
             CL.add(bestCandOut);
             TL.add(bestCandOut);
         } else {
@@ -161,13 +161,12 @@ public class TS_QBF extends AbstractTS<Integer> {
         }
         TL.poll();
         if (bestCandIn != null) {
-            incumbentSol.add(bestCandIn);
+            ObjFunction.applyInsertion(bestCandIn, incumbentSol);
             CL.remove(bestCandIn);
             TL.add(bestCandIn);
         } else {
             TL.add(fake);
         }
-        ObjFunction.evaluate(incumbentSol);
 
         return null;
     }
@@ -0,0 +1,264 @@
+package problems.qbfpt;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental feasibility state of a MAXQBFPT solution. The tracker keeps,
+ * for each prohibited triple, how many of its members are selected and, for
+ * each element, by how many triples it is blocked, i.e., in how many triples
+ * it is the only member not selected. An element is a candidate when it is
+ * neither selected nor blocked.
+ *
+ * Selecting or deselecting an element only visits the triples containing it,
+ * and the candidates are kept in a set indexed by element, so membership
+ * tests are O(1) and the candidates can be listed in increasing order.
+ *
+ * Unlike the instance, a tracker is search state, to be owned by one solver.
+ */
+public class FeasibilityTracker {
+
+    private final QBFPTInstance instance;
+
+    /**
+     * number of selected members of each triple, counting repeated members
+     * once for each position
+     */
+    private final int[] selectedCount;
+
+    /**
+     * number of triples blocking each element
+     */
+    private final int[] blockedBy;
+
+    private final boolean[] selected;
+
+    /**
+     * the selected elements, in no particular order, and the position of each
+     * one in that list
+     */
+    private final int[] selectedList;
+    private final int[] selectedPosition;
+    private int selectedSize;
+
+    /**
+     * the candidate elements, one bit per element
+     */
+    private final long[] candidates;
+    private int candidateCount;
+
+    /**
+     * the elements, boxed once for the candidate lists
+     */
+    private final Integer[] elements;
+
+    /**
+     * marks of the elements of the last solution given to
+     * {@link #selectOnly(List)}
+     */
+    private final int[] mark;
+    private int stamp;
+
+    /**
+     * Creates a tracker over an instance, with no element selected.
+     *
+     * @param instance The MAXQBFPT instance.
+     */
+    public FeasibilityTracker(QBFPTInstance instance) {
+        int n = instance.size;
+        this.instance = instance;
+        this.selectedCount = new int[instance.getTripleCount()];
+        this.blockedBy = new int[n];
+        this.selected = new boolean[n];
+        this.selectedList = new int[n];
+        this.selectedPosition = new int[n];
+        this.candidates = new long[(n + 63) >>> 6];
+        this.mark = new int[n];
+        this.elements = new Integer[n];
+        for (int e = 0; e < n; e++) {
+            elements[e] = e;
+        }
+        clear();
+    }
+
+    /**
+     * Deselects every element, which makes all of them candidates.
+     */
+    public final void clear() {
+        int n = instance.size;
+        Arrays.fill(selectedCount, 0);
+        Arrays.fill(blockedBy, 0);
+        Arrays.fill(selected, false);
+        selectedSize = 0;
+
+        Arrays.fill(candidates, -1L);
+        if ((n & 63) != 0) {
+            candidates[candidates.length - 1] = (1L << n) - 1;
+        }
+        candidateCount = n;
+    }
+
+    /**
+     * Selects an element, updating the triples containing it. Selecting an
+     * element already selected does nothing.
+     *
+     * @param e The element.
+     */
+    public void select(int e) {
+        if (selected[e]) {
+            return;
+        }
+
+        selected[e] = true;
+        selectedPosition[e] = selectedSize;
+        selectedList[selectedSize++] = e;
+        refresh(e);
+
+        for (int p = instance.getIncidenceStart(e); p < instance.getIncidenceEnd(e); p++) {
+            int t = instance.getIncidentTriple(p);
+            if (selectedCount[t] == 2) {
+                /* e was the member left out of the triple */
+                blockedBy[e]--;
+            }
+            selectedCount[t] += multiplicity(t, e);
+            if (selectedCount[t] == 2) {
+                block(t, 1);
+            }
+        }
+    }
+
+    /**
+     * Deselects an element, updating the triples containing it. Deselecting
+     * an element not selected does nothing.
+     *
+     * @param e The element.
+     */
+    public void deselect(int e) {
+        if (!selected[e]) {
+            return;
+        }
+
+        for (int p = instance.getIncidenceStart(e); p < instance.getIncidenceEnd(e); p++) {
+            int t = instance.getIncidentTriple(p);
+            if (selectedCount[t] == 2) {
+                block(t, -1);
+            }
+            selectedCount[t] -= multiplicity(t, e);
+            if (selectedCount[t] == 2) {
+                /* e is now the member left out of the triple */
+                blockedBy[e]++;
+            }
+        }
+
+        selected[e] = false;
+        int last = selectedList[--selectedSize];
+        selectedList[selectedPosition[e]] = last;
+        selectedPosition[last] = selectedPosition[e];
+        refresh(e);
+    }
+
+    /**
+     * Makes the selected elements exactly those of a solution, selecting and
+     * deselecting only the elements that differ from the current ones.
+     *
+     * @param sol The elements to be selected.
+     */
+    public void selectOnly(List<Integer> sol) {
+        stamp++;
+        for (Integer e : sol) {
+            mark[e] = stamp;
+        }
+        for (int i = selectedSize - 1; i >= 0; i--) {
+            if (mark[selectedList[i]] != stamp) {
+                deselect(selectedList[i]);
+            }
+        }
+        for (Integer e : sol) {
+            select(e);
+        }
+    }
+
+    /**
+     * Tells whether an element is selected.
+     *
+     * @param e The element.
+     * @return true if the element is selected.
+     */
+    public boolean isSelected(int e) {
+        return selected[e];
+    }
+
+    /**
+     * Tells whether an element is a candidate, i.e., whether it is neither
+     * selected nor blocked by a triple.
+     *
+     * @param e The element.
+     * @return true if the element may enter the solution.
+     */
+    public boolean isCandidate(int e) {
+        return (candidates[e >>> 6] & (1L << e)) != 0;
+    }
+
+    /**
+     * Gives the number of candidates.
+     *
+     * @return The number of candidates.
+     */
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    /**
+     * Appends the candidates to a list, in increasing order.
+     *
+     * @param list The list receiving the candidates.
+     */
+    public void addCandidatesTo(List<Integer> list) {
+        for (int w = 0; w < candidates.length; w++) {
+            for (long word = candidates[w]; word != 0; word &= word - 1) {
+                list.add(elements[(w << 6) + Long.numberOfTrailingZeros(word)]);
+            }
+        }
+    }
+
+    /**
+     * Gives how many times an element appears in a triple.
+     */
+    private int multiplicity(int t, int e) {
+        int m = 0;
+        for (int k = 0; k < 3; k++) {
+            if (instance.getTripleElement(t, k) == e) {
+                m++;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Adds a delta to the blocked-by counter of the member left out of a
+     * triple with two selected members.
+     */
+    private void block(int t, int delta) {
+        for (int k = 0; k < 3; k++) {
+            int x = instance.getTripleElement(t, k);
+            if (!selected[x]) {
+                blockedBy[x] += delta;
+                refresh(x);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Updates the candidate bit of an element.
+     */
+    private void refresh(int e) {
+        boolean candidate = !selected[e] && blockedBy[e] == 0;
+        long bit = 1L << e;
+        if (candidate != ((candidates[e >>> 6] & bit) != 0)) {
+            candidates[e >>> 6] ^= bit;
+            candidateCount += candidate ? 1 : -1;
+        }
+    }
+
+}
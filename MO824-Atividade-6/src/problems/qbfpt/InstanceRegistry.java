@@ -0,0 +1,67 @@
+package problems.qbfpt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide cache of {@link QBFPTInstance}s, keyed by the canonical path
+ * of their files. Each file is parsed once, no matter how many solvers (or
+ * threads) ask for it, and every solver shares the same immutable instance.
+ */
+public class InstanceRegistry {
+
+    private static final ConcurrentHashMap<String, QBFPTInstance> instances = new ConcurrentHashMap<>();
+
+    private InstanceRegistry() {
+    }
+
+    /**
+     * Gives the instance stored in a file, reading it on the first request.
+     * Concurrent requests for a file not yet read wait for a single read.
+     *
+     * @param filename Name of the file containing the QBF coefficients.
+     * @return the shared instance.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public static QBFPTInstance get(String filename) throws IOException {
+
+        String key = new File(filename).getCanonicalPath();
+        QBFPTInstance instance = instances.get(key);
+        if (instance != null) {
+            return instance;
+        }
+
+        try {
+            return instances.computeIfAbsent(key, k -> {
+                try {
+                    return new QBFPTInstance(k);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drops the instance of a file from the registry, so that it is read again
+     * on the next request. Solvers already holding it are not affected.
+     *
+     * @param filename Name of the file containing the QBF coefficients.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public static void evict(String filename) throws IOException {
+        instances.remove(new File(filename).getCanonicalPath());
+    }
+
+    /**
+     * Drops every instance from the registry.
+     */
+    public static void clear() {
+        instances.clear();
+    }
+
+}
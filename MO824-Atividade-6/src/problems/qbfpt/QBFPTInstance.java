@@ -0,0 +1,193 @@
+package problems.qbfpt;
+
+import java.io.IOException;
+import java.util.Arrays;
+import problems.qbf.QBF;
+import problems.qbf.QBFMatrix;
+
+/**
+ * An instance of the MAXQBFPT problem: the matrix of coefficients of the QBF
+ * together with its n prohibited triples. Instances are immutable, and so can
+ * be shared by any number of solvers, in any number of threads, each solver
+ * keeping its own evaluation and search state. Instances read from files are
+ * usually obtained from the {@link InstanceRegistry}.
+ *
+ * The prohibited triples are those of the MAXQBFPT definition: for u = 1 ...
+ * n, the triple {u, g(u), h(u)}, with g and h built on the linear congruent
+ * function l.
+ */
+public class QBFPTInstance {
+
+    /**
+     * Dimension of the instance.
+     */
+    public final int size;
+
+    /**
+     * The matrix of coefficients of the QBF.
+     */
+    private final QBFMatrix matrix;
+
+    /**
+     * The 0-based elements of the prohibited triples, three per triple, in
+     * increasing order within each triple.
+     */
+    private final int[] triples;
+
+    /**
+     * Index of the prohibited triples containing each element, in compressed
+     * sparse row form: the triples containing element e are
+     * incidence[incidenceStart[e]], ..., incidence[incidenceStart[e + 1] - 1],
+     * in increasing order.
+     */
+    private final int[] incidenceStart;
+    private final int[] incidence;
+
+    /**
+     * Reads an instance from a file.
+     *
+     * @param filename Name of the file containing the QBF coefficients.
+     * @throws IOException Necessary for I/O operations.
+     */
+    public QBFPTInstance(String filename) throws IOException {
+        this(new QBF(filename).getMatrix());
+    }
+
+    /**
+     * Builds an instance over an already loaded matrix of coefficients,
+     * generating its prohibited triples.
+     *
+     * @param matrix The matrix of coefficients of the QBF.
+     */
+    public QBFPTInstance(QBFMatrix matrix) {
+        this.matrix = matrix;
+        this.size = matrix.size;
+        this.triples = new int[3 * size];
+
+        int[] triple = new int[3];
+        for (int u = 1; u <= size; u++) {
+            triple[0] = u - 1;
+            triple[1] = g(u - 1, size) - 1;
+            triple[2] = h(u - 1, size) - 1;
+            Arrays.sort(triple);
+            System.arraycopy(triple, 0, triples, 3 * (u - 1), 3);
+        }
+
+        this.incidenceStart = new int[size + 1];
+        for (int p = 0; p < triples.length; p++) {
+            if (p % 3 == 0 || triples[p] != triples[p - 1]) {
+                incidenceStart[triples[p] + 1]++;
+            }
+        }
+        for (int e = 0; e < size; e++) {
+            incidenceStart[e + 1] += incidenceStart[e];
+        }
+
+        this.incidence = new int[incidenceStart[size]];
+        int[] next = Arrays.copyOf(incidenceStart, size);
+        for (int p = 0; p < triples.length; p++) {
+            if (p % 3 == 0 || triples[p] != triples[p - 1]) {
+                incidence[next[triples[p]]++] = p / 3;
+            }
+        }
+    }
+
+    /**
+     * Linear congruent function l used to generate pseudo-random numbers.
+     */
+    private static int l(int pi1, int pi2, int u, int n) {
+        return 1 + ((pi1 * u + pi2) % n);
+    }
+
+    /**
+     * Function g used to generate pseudo-random numbers
+     */
+    private static int g(int u, int n) {
+        int lU = l(131, 1031, u, n);
+
+        if (lU != u) {
+            return lU;
+        } else {
+            return 1 + (lU % n);
+        }
+    }
+
+    /**
+     * Function h used to generate pseudo-random numbers
+     */
+    private static int h(int u, int n) {
+        int lU = l(193, 1093, u, n);
+        int gU = g(u, n);
+
+        if (lU != u && lU != gU) {
+            return lU;
+        } else if ((1 + (lU % n)) != u && (1 + (lU % n)) != gU) {
+            return 1 + (lU % n);
+        } else {
+            return 1 + ((lU + 1) % n);
+        }
+    }
+
+    /**
+     * Gives the matrix of coefficients of the instance.
+     *
+     * @return the (immutable) matrix of coefficients.
+     */
+    public QBFMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Gives the number of prohibited triples.
+     *
+     * @return the number of prohibited triples.
+     */
+    public int getTripleCount() {
+        return triples.length / 3;
+    }
+
+    /**
+     * Gives an element of a prohibited triple.
+     *
+     * @param t index of the triple.
+     * @param k position of the element in the triple, from 0 to 2.
+     * @return the 0-based index of the k-th smallest element of triple t.
+     */
+    public int getTripleElement(int t, int k) {
+        return triples[3 * t + k];
+    }
+
+    /**
+     * Gives where the triples containing an element start in the incidence
+     * index, to be read through {@link #getIncidentTriple(int)} up to
+     * {@link #getIncidenceEnd(int)}.
+     *
+     * @param e the 0-based index of the element.
+     * @return the position of the first triple containing the element.
+     */
+    public int getIncidenceStart(int e) {
+        return incidenceStart[e];
+    }
+
+    /**
+     * Gives where the triples containing an element end in the incidence
+     * index.
+     *
+     * @param e the 0-based index of the element.
+     * @return the position past the last triple containing the element.
+     */
+    public int getIncidenceEnd(int e) {
+        return incidenceStart[e + 1];
+    }
+
+    /**
+     * Gives a triple of the incidence index.
+     *
+     * @param p a position of the incidence index.
+     * @return the index of the triple at that position.
+     */
+    public int getIncidentTriple(int p) {
+        return incidence[p];
+    }
+
+}
@@ -1,50 +0,0 @@
-package problems.qbfpt;
-
-/**
- * An object of this class represents a element that could be inserted in a
- * prohibited list for MAXQBFPT problem. An element is simply a variable of the
- * instance.
- *
- * @author Cristina Bazzano
- * @author Jônatas Trabuco Belotti [jonatas.t.belotti@hotmail.com]
- * @author Matheus Diógenes Andrade
- */
-public class TripleElement {
-
-    public final Integer index; //The index of the variable
-    public Boolean selected; //If the element is already selected in the partial solution
-    public Boolean available; // If the element is available to be inserted into the partial solution
-    public Integer qttUsed;
-
-    public TripleElement(int index) {
-        this.index = index;
-        this.selected = false;
-        this.available = true;
-        this.qttUsed = 0;
-    }
-
-    public Boolean getSelected() {
-        return selected;
-    }
-
-    public void setSelected(Boolean selected) {
-        this.selected = selected;
-    }
-
-    public Boolean getAvailable() {
-        return available;
-    }
-
-    public void setAvailable(Boolean available) {
-        this.available = available;
-    }
-
-    public Integer getIndex() {
-        return index;
-    }
-
-    public Integer getQttUsed() {
-        return qttUsed;
-    }
-
-}
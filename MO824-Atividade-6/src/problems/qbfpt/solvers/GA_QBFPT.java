@@ -4,15 +4,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.BitChromosome;
 import metaheuristics.ga.Chromosome;
 import metaheuristics.ga.AbstractGA.Population;
 import problems.qbf.QBF;
 import problems.qbf.solvers.ChromossomeQBF;
-import problems.qbfpt.Triple;
-import problems.qbfpt.TripleElement;
+import problems.qbfpt.InstanceRegistry;
+import problems.qbfpt.QBFPTInstance;
 import solutions.Solution;
 
 /**
@@ -24,18 +25,27 @@ import solutions.Solution;
 public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 
     /**
-     * List of element objects used in prohibited triples. These objects
-     * represents the variables of the model.
+     * The instance, whose incidence index gives the triples containing each
+     * element.
      */
-    private TripleElement[] tripleElements;
+    private final QBFPTInstance instance;
 
     /**
-     * List of prohibited triples.
+     * Number of uses of each element by the crossovers and mutations of the
+     * current generation.
      */
-    private Triple[] triples;
+    private final int[] qttUsed;
 
     private Double esperanca;
 
+    /**
+     * Running sum of the uses of the elements, and of their squares, kept by
+     * {@link #incrementEsperanca(int)} and {@link #decrementEsperanca(int)}
+     * so that the {@link #desvioPadrao()} of the uses takes constant time.
+     */
+    private long somaUsos;
+    private long somaQuadradosUsos;
+
     private ArrayList<Integer> listIndices = new ArrayList<Integer>();
 
     public final static int XOR_CROSSOVER = 3;
@@ -43,8 +53,71 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 
     public boolean NO_DUPLICATES_POLICY; // -1 or zero or more: number of allowed duplicates in any population; -1 disable
 
+    /**
+     * A population indexed by the hashes of its chromosomes, so that telling
+     * whether it holds a clone of a chromosome takes expected constant time.
+     * Its chromosomes must not change while in the population, and only
+     * add, set, remove and clear keep the index up to date.
+     */
+    @SuppressWarnings("serial")
+    protected class IndexedPopulation extends Population {
+
+        private final HashMap<Chromosome<Integer>, Integer> counts = new HashMap<>();
+
+        @Override
+        public boolean add(Chromosome<Integer> c) {
+            counts.merge(c, 1, Integer::sum);
+            return super.add(c);
+        }
+
+        @Override
+        public Chromosome<Integer> set(int index, Chromosome<Integer> c) {
+            counts.merge(c, 1, Integer::sum);
+            Chromosome<Integer> old = super.set(index, c);
+            counts.computeIfPresent(old, (k, n) -> (n == 1) ? null : n - 1);
+            return old;
+        }
+
+        @Override
+        public Chromosome<Integer> remove(int index) {
+            Chromosome<Integer> old = super.remove(index);
+            counts.computeIfPresent(old, (k, n) -> (n == 1) ? null : n - 1);
+            return old;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            int index = indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+            remove(index);
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return counts.containsKey(o);
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            counts.clear();
+        }
+
+    }
+
     public GA_QBFPT(Integer tempoExecucao, List<Integer> alvos, Integer popSize, Double mutationRate, String filename, int crossoverType, int mutationType, boolean no_duplicates) throws IOException {
-        super(new QBF(filename), tempoExecucao, alvos, popSize, mutationRate, crossoverType, mutationType);
+        this(tempoExecucao, alvos, popSize, mutationRate, InstanceRegistry.get(filename), crossoverType, mutationType, no_duplicates);
+    }
+
+    /**
+     * Constructor for the GA_QBFPT class over a shared instance. The solver
+     * keeps its own evaluation state over the matrix of the instance.
+     */
+    public GA_QBFPT(Integer tempoExecucao, List<Integer> alvos, Integer popSize, Double mutationRate, QBFPTInstance instance, int crossoverType, int mutationType, boolean no_duplicates) {
+        super(new QBF(instance.getMatrix()), tempoExecucao, alvos, popSize, mutationRate, crossoverType, mutationType);
 
 //        System.out.println("file " + filename + " tempoExec " + tempoExecucao + " geracoesConvergencia "
 //                + geracoesConvengencia + " \n popSize " + this.popSize + " mutationRate " + mutationRate + " crossoverType "
@@ -54,24 +127,40 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
             listIndices.add(i);
         }
         esperanca = 0d;
-        generateTripleElements();
-        generateTriples();
+        this.instance = instance;
+        this.qttUsed = new int[instance.size];
         this.NO_DUPLICATES_POLICY = no_duplicates;
     }
 
     protected void resetTripleElementsQttUsed() {
-        for (int i = 0; i < tripleElements.length; i++) {
-            tripleElements[i].qttUsed = 0;
-        }
+        Arrays.fill(qttUsed, 0);
         this.esperanca = 0d;
+        this.somaUsos = 0;
+        this.somaQuadradosUsos = 0;
     }
 
-    protected void incrementEsperanca() {
-        esperanca += 1 / this.tripleElements.length;
+    /**
+     * Counts one more use of an element.
+     *
+     * @param i the element.
+     */
+    protected void incrementEsperanca(int i) {
+        int qtt = ++this.qttUsed[i];
+        somaUsos++;
+        somaQuadradosUsos += 2L * qtt - 1;
+        esperanca += 1 / this.qttUsed.length;
     }
 
-    protected void decrementEsperanca() {
-        esperanca -= 1 / this.tripleElements.length;
+    /**
+     * Counts one less use of an element.
+     *
+     * @param i the element.
+     */
+    protected void decrementEsperanca(int i) {
+        int qtt = --this.qttUsed[i];
+        somaUsos--;
+        somaQuadradosUsos -= 2L * qtt + 1;
+        esperanca -= 1 / this.qttUsed.length;
     }
 
     @Override
@@ -94,17 +183,18 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
      */
     protected Population initializePopulation() {
 
-        Population population = new Population();
+        Population population = newPopulation();
 
         while (population.size() < popSize) {
             Chromosome<Integer> c = generateRandomChromosome();
 
             if (!NO_DUPLICATES_POLICY || populationCheckClonesOk(population, c)) {
-                c.calcFitness(ObjFunction);
                 population.add(c);
             }
         }
 
+        calcFitness(population, null);
+
         return population;
 
     }
@@ -117,14 +207,13 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
             chromosome.add(0);
         }
 
-        Collections.shuffle(listIndices);
+        Collections.shuffle(listIndices, rng);
 
         for (int i : listIndices) {
-            if (updateCL(chromosome).contains(i)) {
+            if (isFree(chromosome, i)) {
                 Integer used = rng.nextInt(2);
                 if (used == 1) {
-                    this.tripleElements[i].qttUsed++;
-                    this.incrementEsperanca();
+                    this.incrementEsperanca(i);
                 }
                 chromosome.set(i, used);
             }
@@ -135,21 +224,13 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
     }
 
     protected Integer diffChromosome(Chromosome<Integer> c1, Chromosome<Integer> c2) {
-        int diff = 0;
-
-        for (int i = 0; i < chromosomeSize; i++) {
-            if (c1.get(i) != c2.get(i)) {
-                diff++;
-            }
-        }
-
-        return diff;
+        return ((BitChromosome) c1).distance((BitChromosome) c2);
     }
 
     @Override
     protected Population selectParents(Population population) {
 
-        Population parents = new Population();
+        Population parents = newPopulation();
         int index1, index2;
         Chromosome<Integer> parent1, parent2;
 
@@ -203,36 +284,28 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
             return true;
         }
 
-        for (Chromosome<Integer> individuo : offsprings) {
-            if (diffChromosome(individuo, chrom) == 0) {
-                return false; // return when the N_DUPLICATES_POLICY clone is found
-            }
+        return !offsprings.contains(chrom);
 
-        }
+    }
 
-        return true;
+    /**
+     * Creates an empty population, which is an {@link IndexedPopulation}
+     * under the {@link #NO_DUPLICATES_POLICY}.
+     *
+     * @return the population.
+     */
+    @Override
+    protected Population createPopulation() {
+        return NO_DUPLICATES_POLICY ? new IndexedPopulation() : new Population();
+    }
 
+    @Override
+    protected boolean acceptsImmigrant(Chromosome<Integer> immigrant) {
+        return populationCheckClonesOk(population, immigrant);
     }
 
     protected ArrayList<Integer> xorPos(Chromosome<Integer> c1, Chromosome<Integer> c2, boolean ones) {
-        ArrayList<Integer> pos = new ArrayList<Integer>();
-
-        for (int i = 0; i < chromosomeSize; i++) {
-            boolean e1 = (c1.get(i) == 1);
-            boolean e2 = (c2.get(i) == 1);
-
-            if (e1 ^ e2) {
-                if (ones) {
-                    pos.add(i);
-                }
-            } else {
-                if (!ones) {
-                    pos.add(i);
-                }
-            }
-        }
-
-        return pos;
+        return ((BitChromosome) c1).differences((BitChromosome) c2, ones);
     }
 
     /**
@@ -247,41 +320,36 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
     @Override
     protected Population mutate(Population offsprings) {
 
-        for (Chromosome<Integer> c : offsprings) {
+        Population mutants = newPopulation();
+        Population originals = newPopulation();
+
+        for (int i = 0; i < offsprings.size(); i++) {
             boolean teveMutacao = false;
-            Chromosome<Integer> cc = (Chromosome<Integer>) c.clone();
-
-            for (int locus = 0; locus < chromosomeSize; locus++) {
-                if (this.MUTATION_TYPE == AbstractGA.DEFAULT_MUTATION) {
-                    if (rng.nextDouble() < mutationRate) {
-                        mutateGene(cc, locus);
-                        if (!NO_DUPLICATES_POLICY || populationCheckClonesOk(offsprings, cc)) {
-                            c = cc;
-                            teveMutacao = true;
-                        }
-                    }
-                } else if (this.MUTATION_TYPE == AbstractGA.DYNAMIC_MUTATION) {
-                    if (this.mutationCriteria()) {
-                        mutateGene(cc, locus);
-                        if (!NO_DUPLICATES_POLICY || populationCheckClonesOk(offsprings, cc)) {
-                            c = cc;
-                            teveMutacao = true;
-                        }
-                    }
-                }
+            Chromosome<Integer> original = offsprings.get(i);
+            Chromosome<Integer> cc = copyChromosome(original);
 
+            for (int locus = nextMutation(-1); locus < chromosomeSize; locus = nextMutation(locus)) {
+                mutateGene(cc, locus);
+                if (!NO_DUPLICATES_POLICY || populationCheckClonesOk(offsprings, cc)) {
+                    teveMutacao = true;
+                }
             }
 
             if (teveMutacao) {
-                c.calcFitness(ObjFunction);
+                offsprings.set(i, cc);
+                mutants.add(cc);
+                originals.add(original);
             }
         }
 
+        calcFitness(mutants, originals);
+
         return offsprings;
     }
 
     protected Population xorCrossover(Population parents) {
-        Population offsprings = new Population();
+        Population offsprings = newPopulation();
+        Population bases = newPopulation();
 
         for (int i = 0; i < popSize; i = i + 2) {
 
@@ -290,57 +358,45 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 
             // encontrar indice a partir do inicio em que parent1 fica diferente de parent2
             int crossbegin, crossend;
-            for (crossbegin = 0; crossbegin < chromosomeSize; crossbegin++) {
-                if (parent1.get(crossbegin) != parent2.get(crossbegin)) {
-                    break;
-                }
-            }
+            crossbegin = ((BitChromosome) parent1).nextDifference((BitChromosome) parent2, 0);
             if (crossbegin == chromosomeSize) // parents are equal
             {
-                Chromosome<Integer> offspring1 = (Chromosome<Integer>) parent1.clone();
-                Chromosome<Integer> offspring2 = (Chromosome<Integer>) parent2.clone();
+                Chromosome<Integer> offspring1 = copyChromosome(parent1);
+                Chromosome<Integer> offspring2 = copyChromosome(parent2);
 
                 // mutate at least one parent at random and add them
                 while (NO_DUPLICATES_POLICY && !populationCheckClonesOk(offsprings, offspring1)) {
-                    mutateGeneCL(updateCL(offspring1), offspring1, rng.nextInt(chromosomeSize));
+                    mutateGene(offspring1, rng.nextInt(chromosomeSize));
                 }
                 while (NO_DUPLICATES_POLICY && (!populationCheckClonesOk(offsprings, offspring2)
                         || diffChromosome(offspring1, offspring2) == 0)) {
-                    mutateGeneCL(updateCL(offspring2), offspring2, rng.nextInt(chromosomeSize));
+                    mutateGene(offspring2, rng.nextInt(chromosomeSize));
                 }
 
                 // if duplicates are allowed just modify one parent at random
                 if (!NO_DUPLICATES_POLICY) {
-                    mutateGeneCL(updateCL(offspring1), offspring1, rng.nextInt(chromosomeSize));
+                    mutateGene(offspring1, rng.nextInt(chromosomeSize));
                 }
 
-                offspring1.calcFitness(ObjFunction);
-                offspring2.calcFitness(ObjFunction);
-
                 offsprings.add(offspring1);
                 offsprings.add(offspring2);
+                bases.add(parent1);
+                bases.add(parent2);
 //                System.out.println("Parents were equall!!");
 //                System.out.println("parent1 "+offspring1);
 //                System.out.println("parent2 "+offspring2);
                 continue;
             }
             // encontrar indice a partir do final em que parents ficam diferentes
-            for (crossend = chromosomeSize - 1; crossend > crossbegin; crossend--) {
-                if (parent1.get(crossend) != parent2.get(crossend)) {
-                    break;
-                }
-            }
+            crossend = ((BitChromosome) parent1).previousDifference((BitChromosome) parent2, chromosomeSize - 1);
 
             int crosspoint1 = crossbegin + rng.nextInt(crossend + 1 - crossbegin);
             int crosspoint2 = crosspoint1 + rng.nextInt((crossend + 1) - crosspoint1);
 
 //            int crosspoint1 = rng.nextInt(chromosomeSize + 1);
 //            int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
-            Chromosome<Integer> offspring1 = createEmpytChromossome();
-            Chromosome<Integer> offspring2 = createEmpytChromossome();
-
-            ArrayList<Integer> CL1 = makeCL();
-            ArrayList<Integer> CL2 = makeCL();
+            Chromosome<Integer> offspring1 = newChromosome();
+            Chromosome<Integer> offspring2 = newChromosome();
 
             for (int j = 0; j < chromosomeSize; j++) {
                 int cand1, cand2;
@@ -353,66 +409,55 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
                     cand2 = parent2.get(j);
                 }
 
-                if (cand1 == 1 && !CL1.contains(j)) {
+                if (cand1 == 1 && !isFree(offspring1, j)) {
                     cand1 = 0;
                 }
-                if (cand2 == 1 && !CL2.contains(j)) {
+                if (cand2 == 1 && !isFree(offspring2, j)) {
                     cand2 = 0;
                 }
 
                 if (cand1 == 1) {
-                    this.tripleElements[j].qttUsed++;
-                    this.incrementEsperanca();
+                    this.incrementEsperanca(j);
                 }
                 if (cand2 == 1) {
-                    this.tripleElements[j].qttUsed++;
-                    this.incrementEsperanca();
+                    this.incrementEsperanca(j);
                 }
 
                 offspring1.add(cand1);
                 offspring2.add(cand2);
-
-                CL1 = updateCL(offspring1);
-                CL2 = updateCL(offspring2);
             }
 
-            offspring1.calcFitness(ObjFunction);
-            offspring2.calcFitness(ObjFunction);
-
             while (NO_DUPLICATES_POLICY && !populationCheckClonesOk(offsprings, offspring1)) {
                 // existe um individuo igual a offspring1, mutate offspring1 until it is valid and add
-                mutateGeneCL(CL1, offspring1, rng.nextInt(chromosomeSize));
-                CL1 = updateCL(offspring1);
+                mutateGene(offspring1, rng.nextInt(chromosomeSize));
             }
             while (NO_DUPLICATES_POLICY && (!populationCheckClonesOk(offsprings, offspring2)
                     || diffChromosome(offspring1, offspring2) == 0)) {
                 // existe um individuo igual a offspring2, mutate offspring2 until it is valid and add
-                mutateGeneCL(CL2, offspring2, rng.nextInt(chromosomeSize));
-                CL2 = updateCL(offspring2);
+                mutateGene(offspring2, rng.nextInt(chromosomeSize));
             }
 
-            offspring1.calcFitness(ObjFunction);
-            offspring2.calcFitness(ObjFunction);
-
             offsprings.add(offspring1);
             offsprings.add(offspring2);
+            bases.add(parent1);
+            bases.add(parent2);
         }
 
+        calcFitness(offsprings, bases);
+
         return offsprings;
     }
 
     protected Population uniformXorCrossover(Population parents) {
-        Population offsprings = new Population();
+        Population offsprings = newPopulation();
+        Population bases = newPopulation();
 
         for (int i = 0; i < popSize; i = i + 2) {
 
 //            Chromosome<Integer> parent1 = parents.get(i);
 //            Chromosome<Integer> parent2 = parents.get(i + 1);
-            Chromosome<Integer> offspring1 = (Chromosome<Integer>) parents.get(i).clone();
-            Chromosome<Integer> offspring2 = (Chromosome<Integer>) parents.get(i + 1).clone();
-
-            ArrayList<Integer> CL1 = updateCL(offspring1);
-            ArrayList<Integer> CL2 = updateCL(offspring2);
+            Chromosome<Integer> offspring1 = copyChromosome(parents.get(i));
+            Chromosome<Integer> offspring2 = copyChromosome(parents.get(i + 1));
 
             ArrayList<Integer> crossPos = xorPos(offspring1, offspring2, true);
 
@@ -421,25 +466,22 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
                 // mutate at least one parent at random and add them
 
                 while (NO_DUPLICATES_POLICY && !populationCheckClonesOk(offsprings, offspring1)) {
-                    mutateGeneCL(CL1, offspring1, rng.nextInt(chromosomeSize));
-                    CL1 = updateCL(offspring1);
+                    mutateGene(offspring1, rng.nextInt(chromosomeSize));
                 }
                 while (NO_DUPLICATES_POLICY && (!populationCheckClonesOk(offsprings, offspring2)
                         || diffChromosome(offspring1, offspring2) == 0)) {
-                    mutateGeneCL(CL2, offspring2, rng.nextInt(chromosomeSize));
-                    CL2 = updateCL(offspring2);
+                    mutateGene(offspring2, rng.nextInt(chromosomeSize));
                 }
 
                 // if duplicates are allowed just modify one parent at random
                 if (!NO_DUPLICATES_POLICY) {
-                    mutateGeneCL(CL1, offspring1, rng.nextInt(chromosomeSize));
+                    mutateGene(offspring1, rng.nextInt(chromosomeSize));
                 }
 
-                offspring1.calcFitness(ObjFunction);
-                offspring2.calcFitness(ObjFunction);
-
                 offsprings.add(offspring1);
                 offsprings.add(offspring2);
+                bases.add(parents.get(i));
+                bases.add(parents.get(i + 1));
 //                System.out.println("Parents were equall!!");
 //                System.out.println("parent1 "+offspring1);
 //                System.out.println("parent2 "+offspring2);
@@ -451,38 +493,36 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
                 int k = crossPos.get(j);
 
                 if (rng.nextDouble() < 0.5D) {
-                    mutateGeneCL(CL1, offspring1, k);
-                    mutateGeneCL(CL2, offspring2, k);
-
-                    CL1 = updateCL(offspring1);
-                    CL2 = updateCL(offspring2);
+                    mutateGene(offspring1, k);
+                    mutateGene(offspring2, k);
                 }
             }
 
             while (NO_DUPLICATES_POLICY && !populationCheckClonesOk(offsprings, offspring1)) {
                 // existe um individuo igual a offspring1, mutate offspring and check again
-                mutateGeneCL(CL1, offspring1, rng.nextInt(chromosomeSize));
-                CL1 = updateCL(offspring1);
+                mutateGene(offspring1, rng.nextInt(chromosomeSize));
             }
             while (NO_DUPLICATES_POLICY && (!populationCheckClonesOk(offsprings, offspring2)
                     || diffChromosome(offspring1, offspring2) == 0)) {
                 // existe um individuo igual a offspring2, mutate offspring2 and check again
-                mutateGeneCL(CL2, offspring2, rng.nextInt(chromosomeSize));
-                CL2 = updateCL(offspring2);
+                mutateGene(offspring2, rng.nextInt(chromosomeSize));
             }
-            offspring1.calcFitness(ObjFunction);
-            offspring2.calcFitness(ObjFunction);
 
             offsprings.add(offspring2);
             offsprings.add(offspring1);
+            bases.add(parents.get(i + 1));
+            bases.add(parents.get(i));
         }
 
+        calcFitness(offsprings, bases);
+
         return offsprings;
     }
 
     @Override
     protected Population defaultCrossover(Population parents) {
-        Population offsprings = new Population();
+        Population offsprings = newPopulation();
+        Population bases = newPopulation();
 
         for (int i = 0; i < popSize; i = i + 2) {
 
@@ -492,11 +532,8 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
             int crosspoint1 = rng.nextInt(chromosomeSize + 1);
             int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
 
-            Chromosome<Integer> offspring1 = createEmpytChromossome();
-            Chromosome<Integer> offspring2 = createEmpytChromossome();
-
-            ArrayList<Integer> CL1 = makeCL();
-            ArrayList<Integer> CL2 = makeCL();
+            Chromosome<Integer> offspring1 = newChromosome();
+            Chromosome<Integer> offspring2 = newChromosome();
 
             for (int j = 0; j < chromosomeSize; j++) {
                 int cand1, cand2;
@@ -509,281 +546,71 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
                     cand2 = parent2.get(j);
                 }
 
-                if (cand1 == 1 && !CL1.contains(j)) {
+                if (cand1 == 1 && !isFree(offspring1, j)) {
                     cand1 = 0;
                 }
-                if (cand2 == 1 && !CL2.contains(j)) {
+                if (cand2 == 1 && !isFree(offspring2, j)) {
                     cand2 = 0;
                 }
 
                 if (cand1 == 1) {
-                    this.tripleElements[j].qttUsed++;
-                    this.incrementEsperanca();
+                    this.incrementEsperanca(j);
                 }
                 if (cand2 == 1) {
-                    this.tripleElements[j].qttUsed++;
-                    this.incrementEsperanca();
+                    this.incrementEsperanca(j);
                 }
 
                 offspring1.add(cand1);
                 offspring2.add(cand2);
-
-                CL1 = updateCL(offspring1);
-                CL2 = updateCL(offspring2);
             }
 
-            offspring1.calcFitness(ObjFunction);
-            offspring2.calcFitness(ObjFunction);
-
             while (NO_DUPLICATES_POLICY && !populationCheckClonesOk(offsprings, offspring1)) {
                 // existe um individuo igual a offspring1, mutate offspring1 until it is valid and add
-                mutateGeneCL(CL1, offspring1, rng.nextInt(chromosomeSize));
-                CL1 = updateCL(offspring1);
+                mutateGene(offspring1, rng.nextInt(chromosomeSize));
             }
             while (NO_DUPLICATES_POLICY && (!populationCheckClonesOk(offsprings, offspring2)
                     || diffChromosome(offspring1, offspring2) == 0)) {
                 // existe um individuo igual a offspring2, mutate offspring2 until it is valid and add
-                mutateGeneCL(CL2, offspring2, rng.nextInt(chromosomeSize));
-                CL2 = updateCL(offspring2);
+                mutateGene(offspring2, rng.nextInt(chromosomeSize));
             }
 
-            offspring1.calcFitness(ObjFunction);
-            offspring2.calcFitness(ObjFunction);
-
             offsprings.add(offspring1);
             offsprings.add(offspring2);
+            bases.add(parent1);
+            bases.add(parent2);
 
         }
 
-        return offsprings;
-    }
+        calcFitness(offsprings, bases);
 
-    protected void mutateGeneCL(ArrayList<Integer> CL, Chromosome<Integer> chromosome, Integer locus) {
-        if (chromosome.get(locus) == 1) {
-            this.tripleElements[locus].qttUsed--;
-            this.decrementEsperanca();
-            chromosome.set(locus, 0);
-        } else if (CL.contains(locus)) {
-            this.tripleElements[locus].qttUsed++;
-            this.incrementEsperanca();
-            chromosome.set(locus, 1);
-        } else {
-            // encontra a tripla que proibe o locus e remove o pior
-            Solution<Integer> sol = decode(chromosome);
-            // add locus
-            this.tripleElements[locus].qttUsed++;
-            this.incrementEsperanca();
-            chromosome.set(locus, 1);
-
-            for (Triple trip : this.triples) {
-                TripleElement te0, te1, te2;
-                te0 = trip.getElements().get(0);
-                te1 = trip.getElements().get(1);
-                te2 = trip.getElements().get(2);
-
-                if (te0.getIndex() == locus) {
-                    // essa tripla esta bloqueando o locus, remove o pior elemento
-                    if (sol.contains(te1.getIndex()) && sol.contains(te2.getIndex())) {
-                        if (ObjFunction.evaluateExchangeCost(locus, te1.getIndex(), sol)
-                                > ObjFunction.evaluateExchangeCost(locus, te2.getIndex(), sol)) {
-                            this.tripleElements[te1.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te1.getIndex(), 0);
-                        } else {
-                            this.tripleElements[te2.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te2.getIndex(), 0);
-                        }
-                    }
-                } else if (te1.getIndex() == locus) {
-                    if (sol.contains(te0.getIndex()) && sol.contains(te2.getIndex())) {
-                        if (ObjFunction.evaluateExchangeCost(locus, te0.getIndex(), sol)
-                                > ObjFunction.evaluateExchangeCost(locus, te2.getIndex(), sol)) {
-                            this.tripleElements[te0.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te0.getIndex(), 0);
-                        } else {
-                            this.tripleElements[te2.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te2.getIndex(), 0);
-                        }
-                    }
-                } else if (te2.getIndex() == locus) {
-                    if (sol.contains(te0.getIndex()) && sol.contains(te1.getIndex())) {
-                        if (ObjFunction.evaluateExchangeCost(locus, te0.getIndex(), sol)
-                                > ObjFunction.evaluateExchangeCost(locus, te1.getIndex(), sol)) {
-                            this.tripleElements[te0.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te0.getIndex(), 0);
-                        } else {
-                            this.tripleElements[te1.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te1.getIndex(), 0);
-                        }
-                    }
-                }
-            }
-        }
+        return offsprings;
     }
 
     @Override
     public Boolean mutationCriteria() {
-//    	calcular desvio padrão aqui
-        double desvioPadrao = 0d;
-        for (int i = 0; i < tripleElements.length; i++) {
-            int qtt = tripleElements[i].getQttUsed();
-            desvioPadrao += (qtt * qtt) - (2 * qtt * esperanca) + (esperanca * esperanca);
-        }
-        desvioPadrao = Math.sqrt(desvioPadrao / tripleElements.length) / 100;
-//        System.out.println("Desvio padrão "+desvioPadrao);
-        Boolean mutate = rng.nextDouble() >= desvioPadrao;
+        Boolean mutate = rng.nextDouble() >= desvioPadrao();
         return mutate;
     }
 
     /**
-     * Linear congruent function l used to generate pseudo-random numbers.
-     */
-    public int l(int pi1, int pi2, int u, int n) {
-        return 1 + ((pi1 * u + pi2) % n);
-    }
-
-    /**
-     * Function g used to generate pseudo-random numbers
-     */
-    public int g(int u, int n) {
-        int pi1 = 131;
-        int pi2 = 1031;
-        int lU = l(pi1, pi2, u, n);
-
-        if (lU != u) {
-            return lU;
-        } else {
-            return 1 + (lU % n);
-        }
-    }
-
-    /**
-     * Function h used to generate pseudo-random numbers
-     */
-    public int h(int u, int n) {
-        int pi1 = 193;
-        int pi2 = 1093;
-        int lU = l(pi1, pi2, u, n);
-        int gU = g(u, n);
-
-        if (lU != u && lU != gU) {
-            return lU;
-        } else if ((1 + (lU % n)) != u && (1 + (lU % n)) != gU) {
-            return 1 + (lU % n);
-        } else {
-            return 1 + ((lU + 1) % n);
-        }
-    }
-
-    /**
-     * That method generates a list of objects (Triple Elements) that represents
-     * each binary variable that could be inserted into a prohibited triple
-     */
-    private void generateTripleElements() {
-        int n = ObjFunction.getDomainSize();
-        this.tripleElements = new TripleElement[n];
-
-        for (int i = 0; i < n; i++) {
-            tripleElements[i] = new TripleElement(i);
-        }
-    }
-
-    /**
-     * Method that generates a list of n prohibited triples using l g and h
-     * functions
-     */
-    private void generateTriples() {
-        int n = ObjFunction.getDomainSize();
-        this.triples = new Triple[ObjFunction.getDomainSize()];
-
-        for (int u = 1; u <= n; u++) {
-            TripleElement te1, te2, te3;
-            Triple novaTripla;
-
-            te1 = tripleElements[u - 1];
-            te2 = tripleElements[g(u - 1, n) - 1];
-            te3 = tripleElements[h(u - 1, n) - 1];
-            novaTripla = new Triple(te1, te2, te3);
-
-            Collections.sort(novaTripla.getElements(), new Comparator<TripleElement>() {
-                public int compare(TripleElement te1, TripleElement te2) {
-                    return te1.getIndex().compareTo(te2.getIndex());
-                }
-            });
-            //novaTripla.printTriple();
-            this.triples[u - 1] = novaTripla;
-        }
-    }
-
-    /**
-     * A GRASP CL generator for MAXQBFPT problem
-     *
-     * @return A list of candidates to partial solution
+     * A locus mutates unless a uniform draw falls below the
+     * {@link #desvioPadrao()}, as in {@link #mutationCriteria()}.
      */
-    public ArrayList<Integer> makeCL() {
-        int n = ObjFunction.getDomainSize();
-        ArrayList<Integer> _CL = new ArrayList<Integer>(n);
-
-        for (TripleElement tripElem : this.tripleElements) {
-            tripElem.setAvailable(true);
-            tripElem.setSelected(false);
-            _CL.add(tripElem.getIndex());
-        }
-
-        return _CL;
+    @Override
+    protected double mutationProbability() {
+        return Math.max(0d, 1 - desvioPadrao());
     }
 
     /**
-     * The CL updater for MAXQBFPT problem
-     *
+     * Gives the deviation of the uses of the elements from the
+     * {@link #esperanca}, expanding the sum of (qttUsed - esperanca)^2 over
+     * the elements into the running sums of the uses and of their squares.
      */
-    public ArrayList<Integer> updateCL(Chromosome<Integer> cro) {
-        ArrayList<Integer> _CL = new ArrayList<Integer>();
-        Solution<Integer> solAtual = decode(cro);
-
-        if (solAtual != null) {
-//            for (Integer e : solAtual) {
-//                this.tripleElements[e].setSelected(true);
-//                this.tripleElements[e].setAvailable(false);
-//            }
-            for (int i = 0; i < chromosomeSize; i++) {
-                if (solAtual.contains(i)) {
-                    this.tripleElements[i].setSelected(true);
-                    this.tripleElements[i].setAvailable(false);
-                } else {
-                    this.tripleElements[i].setSelected(false);
-                    this.tripleElements[i].setAvailable(true);
-                }
-            }
-        }
-
-        for (Triple trip : this.triples) {
-            TripleElement te0, te1, te2;
-            te0 = trip.getElements().get(0);
-            te1 = trip.getElements().get(1);
-            te2 = trip.getElements().get(2);
-
-            if (te0.getSelected() && te1.getSelected()) {
-                te2.setAvailable(false);
-            } else if (te0.getSelected() && te2.getSelected()) {
-                te1.setAvailable(false);
-            } else if (te1.getSelected() && te2.getSelected()) {
-                te0.setAvailable(false);
-            }
-        }
-
-        for (TripleElement tripElem : this.tripleElements) {
-            if (!tripElem.getSelected() && tripElem.getAvailable()) {
-                _CL.add(tripElem.getIndex());
-            }
-        }
-
-        return _CL;
+    private double desvioPadrao() {
+        int n = qttUsed.length;
+        double desvioPadrao = somaQuadradosUsos - (2 * esperanca * somaUsos) + (n * esperanca * esperanca);
+        desvioPadrao = Math.sqrt(Math.max(0d, desvioPadrao) / n) / 100;
+        return desvioPadrao;
     }
 
     @Override
@@ -795,13 +622,7 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
 
     @Override
     protected Solution<Integer> decode(Chromosome<Integer> chromosome) {
-        Solution<Integer> solution = createEmptySol();
-
-        for (int locus = 0; locus < chromosome.size(); locus++) {
-            if (chromosome.get(locus) == 1) {
-                solution.add(new Integer(locus));
-            }
-        }
+        Solution<Integer> solution = chromosome.toSolution();
 
         ObjFunction.evaluate(solution);
         return solution;
@@ -821,71 +642,89 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
     @Override
     protected void mutateGene(Chromosome<Integer> chromosome, Integer locus) {
         if (chromosome.get(locus) == 1) {
-            this.tripleElements[locus].qttUsed--;
-            this.decrementEsperanca();
+            this.decrementEsperanca(locus);
             chromosome.set(locus, 0);
-        } else if (updateCL(chromosome).contains(locus)) {
-            this.tripleElements[locus].qttUsed++;
-            this.incrementEsperanca();
+        } else if (isFree(chromosome, locus)) {
+            this.incrementEsperanca(locus);
             chromosome.set(locus, 1);
         } else {
-            // encontra a tripla que proibe o locus e remove o pior
-            Solution<Integer> sol = decode(chromosome);
-            // add locus
-            this.tripleElements[locus].qttUsed++;
-            this.incrementEsperanca();
-            chromosome.set(locus, 1);
+            insertBlocked(chromosome, locus);
+        }
+    }
 
-            for (Triple trip : this.triples) {
-                TripleElement te0, te1, te2;
-                te0 = trip.getElements().get(0);
-                te1 = trip.getElements().get(1);
-                te2 = trip.getElements().get(2);
-
-                if (te0.getIndex() == locus) {
-                    // essa tripla esta bloqueando o locus, remove o pior elemento
-                    if (sol.contains(te1.getIndex()) && sol.contains(te2.getIndex())) {
-                        if (ObjFunction.evaluateExchangeCost(locus, te1.getIndex(), sol)
-                                > ObjFunction.evaluateExchangeCost(locus, te2.getIndex(), sol)) {
-                            this.tripleElements[te1.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te1.getIndex(), 0);
-                        } else {
-                            this.tripleElements[te2.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te2.getIndex(), 0);
-                        }
-                    }
-                } else if (te1.getIndex() == locus) {
-                    if (sol.contains(te0.getIndex()) && sol.contains(te2.getIndex())) {
-                        if (ObjFunction.evaluateExchangeCost(locus, te0.getIndex(), sol)
-                                > ObjFunction.evaluateExchangeCost(locus, te2.getIndex(), sol)) {
-                            this.tripleElements[te0.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te0.getIndex(), 0);
-                        } else {
-                            this.tripleElements[te2.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te2.getIndex(), 0);
-                        }
-                    }
-                } else if (te2.getIndex() == locus) {
-                    if (sol.contains(te0.getIndex()) && sol.contains(te1.getIndex())) {
-                        if (ObjFunction.evaluateExchangeCost(locus, te0.getIndex(), sol)
-                                > ObjFunction.evaluateExchangeCost(locus, te1.getIndex(), sol)) {
-                            this.tripleElements[te0.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te0.getIndex(), 0);
-                        } else {
-                            this.tripleElements[te1.getIndex()].qttUsed--;
-                            this.decrementEsperanca();
-                            chromosome.set(te1.getIndex(), 0);
-                        }
-                    }
+    /**
+     * Tells whether a locus not in a chromosome may enter it, i.e., whether
+     * no prohibited triple has its other members in the chromosome. Only the
+     * triples containing the locus are visited, so the test costs O(degree)
+     * instead of rebuilding a candidate list after every flip. Genes not yet
+     * appended to the chromosome count as absent.
+     */
+    private boolean isFree(Chromosome<Integer> chromosome, int locus) {
+        BitChromosome genes = (BitChromosome) chromosome;
+
+        for (int p = instance.getIncidenceStart(locus); p < instance.getIncidenceEnd(locus); p++) {
+            int t = instance.getIncidentTriple(p);
+            int others = 0;
+
+            for (int k = 0; k < 3; k++) {
+                int e = instance.getTripleElement(t, k);
+                if (e != locus && e < genes.size() && genes.getBit(e)) {
+                    others++;
                 }
             }
+
+            if (others == 2) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Inserts a locus blocked by prohibited triples into a chromosome, and
+     * removes from each triple blocking it the element whose exchange with
+     * the locus is the worst.
+     */
+    private void insertBlocked(Chromosome<Integer> chromosome, int locus) {
+        // encontra a tripla que proibe o locus e remove o pior
+        Solution<Integer> sol = chromosome.toSolution();
+        // add locus
+        this.incrementEsperanca(locus);
+        chromosome.set(locus, 1);
+
+        for (int p = instance.getIncidenceStart(locus); p < instance.getIncidenceEnd(locus); p++) {
+            int t = instance.getIncidentTriple(p);
+            int e0 = instance.getTripleElement(t, 0);
+            int e1 = instance.getTripleElement(t, 1);
+            int e2 = instance.getTripleElement(t, 2);
+
+            if (e0 == locus) {
+                // essa tripla esta bloqueando o locus, remove o pior elemento
+                removeWorse(chromosome, sol, locus, e1, e2);
+            } else if (e1 == locus) {
+                removeWorse(chromosome, sol, locus, e0, e2);
+            } else if (e2 == locus) {
+                removeWorse(chromosome, sol, locus, e0, e1);
+            }
         }
+    }
 
+    /**
+     * Removes from a chromosome the one of two elements of a solution whose
+     * exchange with the locus is the worst, if both are in the solution.
+     */
+    private void removeWorse(Chromosome<Integer> chromosome, Solution<Integer> sol, int locus, int a, int b) {
+        if (sol.contains(a) && sol.contains(b)) {
+            if (ObjFunction.evaluateExchangeCost(locus, a, sol)
+                    > ObjFunction.evaluateExchangeCost(locus, b, sol)) {
+                this.decrementEsperanca(a);
+                chromosome.set(a, 0);
+            } else {
+                this.decrementEsperanca(b);
+                chromosome.set(b, 0);
+            }
+        }
     }
 
     /**
@@ -902,13 +741,14 @@ public class GA_QBFPT extends AbstractGA<Integer, Integer> {
         List<Integer> alvos = new ArrayList<>(Arrays.asList(700, 800, 830));
         
         System.out.println("Algoritmo Genetico\nInstancia: " + instancia);
+        QBFPTInstance instance = InstanceRegistry.get(instancia);
         
         for (int exec = 1; exec <= quantExec; exec++) {
             System.out.println("\nExecucao " + exec + ":");
             
             long tempInicial = System.currentTimeMillis();
             
-            GA_QBFPT ga = new GA_QBFPT(tempMaxExec, alvos, tamPop, 1.0 / 100.0, instancia, GA_QBFPT.XOR_UNIFORM_CROSSOVER, GA_QBFPT.DEFAULT_MUTATION, true);
+            GA_QBFPT ga = new GA_QBFPT(tempMaxExec, alvos, tamPop, 1.0 / 100.0, instance, GA_QBFPT.XOR_UNIFORM_CROSSOVER, GA_QBFPT.DEFAULT_MUTATION, true);
             GA_QBFPT.verbose = false;
             
             Solution<Integer> bestSol = ga.solve();
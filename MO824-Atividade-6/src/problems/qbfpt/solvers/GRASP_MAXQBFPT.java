@@ -3,16 +3,16 @@ package problems.qbfpt.solvers;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Random;
 
 import alternativeConstruction.ReactiveAlpha;
 import java.util.Arrays;
 import java.util.List;
 import problems.qbf.solvers.GRASP_QBF;
+import problems.qbfpt.FeasibilityTracker;
+import problems.qbfpt.InstanceRegistry;
+import problems.qbfpt.QBFPTInstance;
 import solutions.Solution;
-import triple.Triple;
-import triple.TripleElement;
 
 /**
  * Class that implements the GRASP specifications for solving the MAXQBFPT
@@ -42,15 +42,10 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
     private Solution<Integer> bestSolConstHeurist;
 
     /**
-     * List of element objects used in prohibited triples. These objects
-     * represents the variables of the model.
+     * The prohibited triples blocking the elements selected since the last
+     * {@link #makeCL()}.
      */
-    private TripleElement[] tripleElements;
-
-    /**
-     * List of prohibited triples.
-     */
-    private Triple[] triples;
+    private final FeasibilityTracker tracker;
 
     /**
      * Constructor of the class, responsible for defining the fixed Alpha value
@@ -73,8 +68,18 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
      * coefficients does not exist.
      */
     public GRASP_MAXQBFPT(Double alpha, int contructionMechanism, Boolean firstImproving, Integer timeLimite, List<Integer> alvos, String filename) throws IOException {
+        this(alpha, contructionMechanism, firstImproving, timeLimite, alvos, InstanceRegistry.get(filename));
+    }
+
+    /**
+     * Constructor of the class over a shared instance. The solver keeps its
+     * own evaluation state over the matrix of the instance.
+     *
+     * @param instance The MAXQBFPT instance to be solved.
+     */
+    public GRASP_MAXQBFPT(Double alpha, int contructionMechanism, Boolean firstImproving, Integer timeLimite, List<Integer> alvos, QBFPTInstance instance) {
 
-        super(alpha, firstImproving, timeLimite, alvos, filename);
+        super(alpha, firstImproving, timeLimite, alvos, instance.getMatrix());
         this.contructionMechanism = contructionMechanism;
         this.bestSolConstHeurist = new Solution<>();
 
@@ -84,88 +89,7 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
             sampleGreedyP = (int) (0.05 * ObjFunction.getDomainSize());
         }
 
-        generateTripleElements();
-        generateTriples();
-    }
-
-    /**
-     * Linear congruent function l used to generate pseudo-random numbers.
-     */
-    public int l(int pi1, int pi2, int u, int n) {
-        return 1 + ((pi1 * u + pi2) % n);
-    }
-
-    /**
-     * Function g used to generate pseudo-random numbers
-     */
-    public int g(int u, int n) {
-        int pi1 = 131;
-        int pi2 = 1031;
-        int lU = l(pi1, pi2, u, n);
-
-        if (lU != u) {
-            return lU;
-        } else {
-            return 1 + (lU % n);
-        }
-    }
-
-    /**
-     * Function h used to generate pseudo-random numbers
-     */
-    public int h(int u, int n) {
-        int pi1 = 193;
-        int pi2 = 1093;
-        int lU = l(pi1, pi2, u, n);
-        int gU = g(u, n);
-
-        if (lU != u && lU != gU) {
-            return lU;
-        } else if ((1 + (lU % n)) != u && (1 + (lU % n)) != gU) {
-            return 1 + (lU % n);
-        } else {
-            return 1 + ((lU + 1) % n);
-        }
-    }
-
-    /**
-     * That method generates a list of objects (Triple Elements) that represents
-     * each binary variable that could be inserted into a prohibited triple
-     */
-    private void generateTripleElements() {
-        int n = ObjFunction.getDomainSize();
-        this.tripleElements = new TripleElement[n];
-
-        for (int i = 0; i < n; i++) {
-            tripleElements[i] = new TripleElement(i);
-        }
-    }
-
-    /**
-     * Method that generates a list of n prohibited triples using l g and h
-     * functions
-     */
-    private void generateTriples() {
-        int n = ObjFunction.getDomainSize();
-        this.triples = new Triple[ObjFunction.getDomainSize()];
-
-        for (int u = 1; u <= n; u++) {
-            TripleElement te1, te2, te3;
-            Triple novaTripla;
-
-            te1 = tripleElements[u - 1];
-            te2 = tripleElements[g(u - 1, n) - 1];
-            te3 = tripleElements[h(u - 1, n) - 1];
-            novaTripla = new Triple(te1, te2, te3);
-
-            Collections.sort(novaTripla.getElements(), new Comparator<TripleElement>() {
-                public int compare(TripleElement te1, TripleElement te2) {
-                    return te1.getIndex().compareTo(te2.getIndex());
-                }
-            });
-            //novaTripla.printTriple();
-            this.triples[u - 1] = novaTripla;
-        }
+        this.tracker = new FeasibilityTracker(instance);
     }
 
     /**
@@ -211,10 +135,9 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
         int n = ObjFunction.getDomainSize();
         ArrayList<Integer> _CL = new ArrayList<Integer>(n);
 
-        for (TripleElement tripElem : this.tripleElements) {
-            tripElem.setAvailable(true);
-            tripElem.setSelected(false);
-            _CL.add(tripElem.getIndex());
+        tracker.clear();
+        for (int i = 0; i < n; i++) {
+            _CL.add(i);
         }
 
         return _CL;
@@ -226,37 +149,15 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
      */
     @Override
     public void updateCL() {
-        ArrayList<Integer> _CL = new ArrayList<Integer>();
-
+        // elements stay selected until the next makeCL, even if removed
         if (this.incumbentSol != null) {
             for (Integer e : this.incumbentSol) {
-                this.tripleElements[e].setSelected(true);
-                this.tripleElements[e].setAvailable(false);
-            }
-        }
-
-        for (Triple trip : this.triples) {
-            TripleElement te0, te1, te2;
-            te0 = trip.getElements().get(0);
-            te1 = trip.getElements().get(1);
-            te2 = trip.getElements().get(2);
-
-            if (te0.getSelected() && te1.getSelected()) {
-                te2.setAvailable(false);
-            } else if (te0.getSelected() && te2.getSelected()) {
-                te1.setAvailable(false);
-            } else if (te1.getSelected() && te2.getSelected()) {
-                te0.setAvailable(false);
-            }
-        }
-
-        for (TripleElement tripElem : this.tripleElements) {
-            if (!tripElem.getSelected() && tripElem.getAvailable()) {
-                _CL.add(tripElem.getIndex());
+                tracker.select(e);
             }
         }
 
-        this.CL = _CL;
+        this.CL.clear();
+        tracker.addCandidatesTo(this.CL);
     }
 
     /*
@@ -304,8 +205,7 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
 
             // Insert best candidate in partial solution
             CL.remove(bestCandidate);
-            incumbentSol.add(bestCandidate);
-            ObjFunction.evaluate(incumbentSol);
+            ObjFunction.applyInsertion(bestCandidate, incumbentSol);
             RCL.clear();
         }
 
@@ -405,13 +305,14 @@ public class GRASP_MAXQBFPT extends GRASP_QBF {
         List<Integer> alvos = new ArrayList<>(Arrays.asList(700, 800, 830));
         
         System.out.println("Algoritmo GRASP\nInstancia: " + instancia);
+        QBFPTInstance instance = InstanceRegistry.get(instancia);
         
         for (int exec = 1; exec <= quantExec; exec++) {
             System.out.println("\nExecucao " + exec + ":");
             
             long tempInicial = System.currentTimeMillis();
             
-            GRASP_MAXQBFPT grasp = new GRASP_MAXQBFPT(0.05, GRASP_MAXQBFPT.STANDARD, false, tempMaxExec, alvos, instancia);
+            GRASP_MAXQBFPT grasp = new GRASP_MAXQBFPT(0.05, GRASP_MAXQBFPT.STANDARD, false, tempMaxExec, alvos, instance);
             GRASP_MAXQBFPT.verbose = false;
             Solution<Integer> bestSol = grasp.solve();
             
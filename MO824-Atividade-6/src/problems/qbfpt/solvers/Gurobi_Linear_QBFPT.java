@@ -10,17 +10,16 @@ import gurobi.GRBModel;
 import gurobi.GRBQuadExpr;
 import gurobi.GRBVar;
 import problems.qbf.solvers.Gurobi_QBF;
-import triple.forbidden.ForbiddenTriplesBuilder;
-import triple.forbidden.Triple;
+import problems.qbfpt.QBFPTInstance;
 
 public class Gurobi_Linear_QBFPT extends Gurobi_QBF {
 
-	private ForbiddenTriplesBuilder ftBuilder;
+	private QBFPTInstance instance;
 	private GRBVar[][] w;
 
 	public Gurobi_Linear_QBFPT(String filename) throws IOException {
 		super(filename);
-		ftBuilder = new ForbiddenTriplesBuilder(problem.size);
+		instance = new QBFPTInstance(problem.getMatrix());
 	}
 	
 	protected void populateNewModel(GRBModel model) throws GRBException {
@@ -40,7 +39,7 @@ public class Gurobi_Linear_QBFPT extends Gurobi_QBF {
     GRBQuadExpr obj = new GRBQuadExpr();
     for (int i = 0; i < problem.size; i++) {
         for (int j = i; j < problem.size; j++) {
-            obj.addTerm(problem.A[i][j], w[i][j]);
+            obj.addTerm(problem.getCoefficient(i, j), w[i][j]);
         }
     }
     
@@ -48,12 +47,15 @@ public class Gurobi_Linear_QBFPT extends Gurobi_QBF {
     model.update();
     
     GRBLinExpr expr1;
-    for (Triple triple : ftBuilder.getForbiddenTriple()) {
+    for (int t = 0; t < instance.getTripleCount(); t++) {
+    	int i = instance.getTripleElement(t, 0);
+    	int j = instance.getTripleElement(t, 1);
+    	int k = instance.getTripleElement(t, 2);
     	expr1 = new GRBLinExpr();
-    	expr1.addTerm(1, x[triple.getX()-1]);
-    	expr1.addTerm(1, x[triple.getY()-1]);
-    	expr1.addTerm(1, x[triple.getZ()-1]);
-    	model.addConstr(expr1, GRB.LESS_EQUAL, 2.0, String.valueOf("x_"+triple.getX()+","+triple.getY()+","+triple.getZ()));
+    	expr1.addTerm(1, x[i]);
+    	expr1.addTerm(1, x[j]);
+    	expr1.addTerm(1, x[k]);
+    	model.addConstr(expr1, GRB.LESS_EQUAL, 2.0, String.valueOf("x_"+(i+1)+","+(j+1)+","+(k+1)));
     }
     
     model.update();
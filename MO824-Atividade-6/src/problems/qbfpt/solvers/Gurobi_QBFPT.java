@@ -10,16 +10,15 @@ import gurobi.GRBModel;
 import gurobi.GRBQuadExpr;
 import gurobi.GRBVar;
 import problems.qbf.solvers.Gurobi_QBF;
-import triple.forbidden.ForbiddenTriplesBuilder;
-import triple.forbidden.Triple;
+import problems.qbfpt.QBFPTInstance;
 
 public class Gurobi_QBFPT extends Gurobi_QBF {
 
-	private ForbiddenTriplesBuilder ftBuilder;
+	private QBFPTInstance instance;
 
 	public Gurobi_QBFPT(String filename) throws IOException {
 		super(filename);
-		ftBuilder = new ForbiddenTriplesBuilder(problem.size);
+		instance = new QBFPTInstance(problem.getMatrix());
 	}
 	
 	protected void populateNewModel(GRBModel model) throws GRBException {
@@ -35,7 +34,7 @@ public class Gurobi_QBFPT extends Gurobi_QBF {
     GRBQuadExpr obj = new GRBQuadExpr();
     for (int i = 0; i < problem.size; i++) {
         for (int j = i; j < problem.size; j++) {
-            obj.addTerm(problem.A[i][j], x[i], x[j]);
+            obj.addTerm(problem.getCoefficient(i, j), x[i], x[j]);
         }
     }
     
@@ -43,12 +42,15 @@ public class Gurobi_QBFPT extends Gurobi_QBF {
     model.update();
     
     GRBLinExpr expr;
-    for (Triple triple : ftBuilder.getForbiddenTriple()) {
+    for (int t = 0; t < instance.getTripleCount(); t++) {
+    	int i = instance.getTripleElement(t, 0);
+    	int j = instance.getTripleElement(t, 1);
+    	int k = instance.getTripleElement(t, 2);
     	expr = new GRBLinExpr();
-    	expr.addTerm(1, x[triple.getX()-1]);
-    	expr.addTerm(1, x[triple.getY()-1]);
-    	expr.addTerm(1, x[triple.getZ()-1]);
-    	model.addConstr(expr, GRB.LESS_EQUAL, 2.0, String.valueOf("x_"+triple.getX()+","+triple.getY()+","+triple.getZ()));
+    	expr.addTerm(1, x[i]);
+    	expr.addTerm(1, x[j]);
+    	expr.addTerm(1, x[k]);
+    	model.addConstr(expr, GRB.LESS_EQUAL, 2.0, String.valueOf("x_"+(i+1)+","+(j+1)+","+(k+1)));
     }
 
     // maximization objective function
@@ -0,0 +1,81 @@
+package problems.qbfpt.solvers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import metaheuristics.ga.IslandGA;
+import problems.qbfpt.InstanceRegistry;
+import problems.qbfpt.QBFPTInstance;
+import solutions.Solution;
+
+/**
+ * Island model of {@link GA_QBFPT}s: every island is a GA_QBFPT over the same
+ * shared instance, with its own evaluation state and random number generator.
+ */
+public class IslandGA_QBFPT extends IslandGA<Integer, Integer> {
+
+    /**
+     * Constructor for the IslandGA_QBFPT class.
+     *
+     * @param islands Number of islands.
+     * @param tempoExecucao Time limit, in minutes.
+     * @param alvos The target fitness values.
+     * @param popSize Population size of each island.
+     * @param mutationRate The mutation rate.
+     * @param instance The shared instance.
+     * @param crossoverType The crossover of the islands.
+     * @param mutationType The mutation of the islands.
+     * @param no_duplicates Whether the populations reject duplicates.
+     * @param topology {@link #RING_TOPOLOGY} or {@link #RANDOM_TOPOLOGY}.
+     * @param migrationInterval Number of generations between two migrations.
+     * @param migrants Number of chromosomes migrating from each island.
+     * @param seed The seed of the random number generators.
+     */
+    public IslandGA_QBFPT(int islands, Integer tempoExecucao, List<Integer> alvos, Integer popSize, Double mutationRate, QBFPTInstance instance, int crossoverType, int mutationType, boolean no_duplicates, int topology, int migrationInterval, int migrants, long seed) {
+        super(createIslands(islands, tempoExecucao, alvos, popSize, mutationRate, instance, crossoverType, mutationType, no_duplicates), tempoExecucao, alvos, topology, migrationInterval, migrants, seed);
+    }
+
+    private static List<GA_QBFPT> createIslands(int islands, Integer tempoExecucao, List<Integer> alvos, Integer popSize, Double mutationRate, QBFPTInstance instance, int crossoverType, int mutationType, boolean no_duplicates) {
+        List<GA_QBFPT> list = new ArrayList<>(islands);
+        for (int i = 0; i < islands; i++) {
+            list.add(new GA_QBFPT(tempoExecucao, alvos, popSize, mutationRate, instance, crossoverType, mutationType, no_duplicates));
+        }
+        return list;
+    }
+
+    /**
+     * A main method used for testing the island model.
+     *
+     * @param args
+     * @throws java.io.IOException
+     */
+    public static void main(String[] args) throws IOException {
+        String instancia = "instances/qbf080";
+        int quantIlhas = Runtime.getRuntime().availableProcessors();
+        int tamPop = 80;
+        int quantExec = 20;
+        int tempMaxExec = 5;
+        List<Integer> alvos = new ArrayList<>(Arrays.asList(700, 800, 830));
+
+        System.out.println("Algoritmo Genetico em Ilhas (" + quantIlhas + " ilhas)\nInstancia: " + instancia);
+        QBFPTInstance instance = InstanceRegistry.get(instancia);
+        GA_QBFPT.verbose = false;
+
+        for (int exec = 1; exec <= quantExec; exec++) {
+            System.out.println("\nExecucao " + exec + ":");
+
+            long tempInicial = System.currentTimeMillis();
+
+            IslandGA_QBFPT ga = new IslandGA_QBFPT(quantIlhas, tempMaxExec, alvos, tamPop, 1.0 / 100.0, instance, GA_QBFPT.XOR_UNIFORM_CROSSOVER, GA_QBFPT.DEFAULT_MUTATION, true, IslandGA.RING_TOPOLOGY, 10, 2, exec);
+
+            Solution<Integer> bestSol = ga.solve();
+
+            long tempFinal = System.currentTimeMillis();
+
+            System.out.println("Temp. " + ((tempFinal - tempInicial) / 1000D) + "s  Max: " + bestSol.cost);
+        }
+
+    }
+
+}
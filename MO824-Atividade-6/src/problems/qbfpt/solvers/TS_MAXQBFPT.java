@@ -5,14 +5,14 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import metaheuristics.tabusearch.AbstractTS;
 import problems.qbf.QBF_Inverse;
+import problems.qbfpt.FeasibilityTracker;
+import problems.qbfpt.InstanceRegistry;
+import problems.qbfpt.QBFPTInstance;
 import solutions.Solution;
-import triple.Triple;
-import triple.TripleElement;
 
 /**
  * Metaheuristic TS (Tabu Search) for obtaining an optimal solution to a QBF
@@ -26,9 +26,10 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
 
     private final Integer fake = new Integer(-1);
 
-    private TripleElement[] tripleElements;
-
-    private Triple[] triples;
+    /**
+     * The prohibited triples blocking the elements of the incumbent solution.
+     */
+    private final FeasibilityTracker tracker;
 
     private boolean first;
 
@@ -42,12 +43,21 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
      * @throws IOException necessary for I/O operations.
      */
     public TS_MAXQBFPT(Integer tenure, boolean firstImproving, String filename, Integer execTime, List<Integer> alvos) throws IOException {
-        super(new QBF_Inverse(filename), tenure, execTime, alvos);
-        
-        this.first = firstImproving;
+        this(tenure, firstImproving, InstanceRegistry.get(filename), execTime, alvos);
+    }
+
+    /**
+     * Constructor for the TS_MAXQBFPT class over a shared instance. The solver
+     * keeps its own evaluation state over the matrix of the instance.
+     *
+     * @param tenure The Tabu tenure parameter.
+     * @param instance The MAXQBFPT instance to be solved.
+     */
+    public TS_MAXQBFPT(Integer tenure, boolean firstImproving, QBFPTInstance instance, Integer execTime, List<Integer> alvos) {
+        super(new QBF_Inverse(instance.getMatrix()), tenure, execTime, alvos);
 
-        generateTripleElements();
-        generateTriples();
+        this.first = firstImproving;
+        this.tracker = new FeasibilityTracker(instance);
     }
 
     /* (non-Javadoc)
@@ -66,88 +76,6 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
 
     }
 
-    /**
-     * Linear congruent function l used to generate pseudo-random numbers.
-     */
-    public int l(int pi1, int pi2, int u, int n) {
-        return 1 + ((pi1 * u + pi2) % n);
-    }
-
-    /**
-     * Function g used to generate pseudo-random numbers
-     */
-    public int g(int u, int n) {
-        int pi1 = 131;
-        int pi2 = 1031;
-        int lU = l(pi1, pi2, u, n);
-
-        if (lU != u) {
-            return lU;
-        } else {
-            return 1 + (lU % n);
-        }
-    }
-
-    /**
-     * Function h used to generate pseudo-random numbers
-     */
-    public int h(int u, int n) {
-        int pi1 = 193;
-        int pi2 = 1093;
-        int lU = l(pi1, pi2, u, n);
-        int gU = g(u, n);
-
-        if (lU != u && lU != gU) {
-            return lU;
-        } else if ((1 + (lU % n)) != u && (1 + (lU % n)) != gU) {
-            return 1 + (lU % n);
-        } else {
-            return 1 + ((lU + 1) % n);
-        }
-    }
-
-    /**
-     * That method generates a list of objects (Triple Elements) that represents
-     * each binary variable that could be inserted into a prohibited triple
-     */
-    private void generateTripleElements() {
-        int n = ObjFunction.getDomainSize();
-        this.tripleElements = new TripleElement[n];
-
-        for (int i = 0; i < n; i++) {
-            tripleElements[i] = new TripleElement(i);
-        }
-    }
-
-    /**
-     * Method that generates a list of n prohibited triples using l g and h
-     * functions
-     */
-    private void generateTriples() {
-        int n = ObjFunction.getDomainSize();
-        this.triples = new Triple[ObjFunction.getDomainSize()];
-
-        for (int u = 1; u <= n; u++) {
-            TripleElement te1, te2, te3;
-            Triple novaTripla;
-
-            te1 = tripleElements[u - 1];
-            te2 = tripleElements[g(u - 1, n) - 1];
-            te3 = tripleElements[h(u - 1, n) - 1];
-            novaTripla = new Triple(te1, te2, te3);
-
-            Collections.sort(novaTripla.getElements(), new Comparator<TripleElement>() {
-                public int compare(TripleElement te1, TripleElement te2) {
-                    return te1.getIndex().compareTo(te2.getIndex());
-                }
-            });
-
-            //novaTripla.printTriple();
-            this.triples[u - 1] = novaTripla;
-        }
-    }
-
-
     /* (non-Javadoc)
 	 * @see metaheuristics.tabusearch.AbstractTS#makeRCL()
      */
@@ -168,10 +96,8 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
         int n = ObjFunction.getDomainSize();
         ArrayDeque<Integer> _CL = new ArrayDeque<Integer>(n);
 
-        for (TripleElement tripElem : this.tripleElements) {
-            tripElem.setAvailable(true);
-            tripElem.setSelected(false);
-            _CL.add(tripElem.getIndex());
+        for (int i = 0; i < n; i++) {
+            _CL.add(i);
         }
 
         return _CL;
@@ -184,42 +110,15 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
     @Override
     public void updateCL() {
 
-        for (TripleElement te : this.tripleElements) {
-            te.setSelected(false);
-            te.setAvailable(true);
-        }
-
-        ArrayList<Integer> _CL = new ArrayList<Integer>();
-
         if (this.incumbentSol != null) {
-            for (Integer e : this.incumbentSol) {
-                this.tripleElements[e].setSelected(true);
-                this.tripleElements[e].setAvailable(false);
-            }
-        }
-
-        for (Triple trip : this.triples) {
-            TripleElement te0, te1, te2;
-            te0 = trip.getElements().get(0);
-            te1 = trip.getElements().get(1);
-            te2 = trip.getElements().get(2);
-
-            if (te0.getSelected() && te1.getSelected()) {
-                te2.setAvailable(false);
-            } else if (te0.getSelected() && te2.getSelected()) {
-                te1.setAvailable(false);
-            } else if (te1.getSelected() && te2.getSelected()) {
-                te0.setAvailable(false);
-            }
-        }
-
-        for (TripleElement tripElem : this.tripleElements) {
-            if (!tripElem.getSelected() && tripElem.getAvailable()) {
-                _CL.add(tripElem.getIndex());
-            }
+            tracker.selectOnly(this.incumbentSol);
+        } else {
+            tracker.clear();
         }
 
-        this.CL = _CL;
+        // the candidates come in increasing order of element
+        this.CL.clear();
+        tracker.addCandidatesTo(this.CL);
 
     }
 
@@ -314,7 +213,7 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
         // Implement the best non-tabu move
         TL.poll();
         if (bestCandOut != null) {
-            incumbentSol.remove(bestCandOut);
+            ObjFunction.applyRemoval(bestCandOut, incumbentSol);
             CL.add(bestCandOut);
             TL.add(bestCandOut);
         } else {
@@ -322,13 +221,12 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
         }
         TL.poll();
         if (bestCandIn != null) {
-            incumbentSol.add(bestCandIn);
+            ObjFunction.applyInsertion(bestCandIn, incumbentSol);
             CL.remove(bestCandIn);
             TL.add(bestCandIn);
         } else {
             TL.add(fake);
         }
-        ObjFunction.evaluate(incumbentSol);
 
         return null;
     }
@@ -352,13 +250,14 @@ public class TS_MAXQBFPT extends AbstractTS<Integer> {
         List<Integer> alvos = new ArrayList<>(Arrays.asList(700, 800, 830));
 
         System.out.println("Algoritmo Busca Tabu\nInstancia: " + instancia);
+        QBFPTInstance instance = InstanceRegistry.get(instancia);
 
         for (int exec = 1; exec <= quantExec; exec++) {
             System.out.println("\nExecucao " + exec + ":");
 
             long tempInicial = System.currentTimeMillis();
 
-            TS_MAXQBFPT tabusearch = new TS_MAXQBFPT(10, true, instancia, tempMaxExec, alvos);
+            TS_MAXQBFPT tabusearch = new TS_MAXQBFPT(10, true, instance, tempMaxExec, alvos);
             TS_MAXQBFPT.verbose = false;
             Solution<Integer> bestSol = tabusearch.solve();
 
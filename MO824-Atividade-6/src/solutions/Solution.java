@@ -16,6 +16,17 @@ public class Solution<E> extends ArrayList<E> {
         cost = sol.cost;
     }
 
+    /**
+     * Gives the number of structural modifications (insertions and removals)
+     * applied to this solution so far. Evaluators that keep state about a
+     * solution use it to detect changes made since they last saw it.
+     *
+     * @return the modification count of the solution.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
     @Override
     public String toString() {
         return "Solution: cost=[" + cost + "], size=[" + this.size() + "], elements=" + super.toString();